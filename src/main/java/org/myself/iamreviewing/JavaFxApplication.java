@@ -5,6 +5,7 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import org.myself.iamreviewing.component.previewer.MediaSessionManager;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.myself.iamreviewing.service.AttachmentService;
 import org.myself.iamreviewing.service.PointService;
@@ -49,6 +50,9 @@ public class JavaFxApplication extends Application {
 
     @Override
     public void stop() throws Exception {
+        // 释放仍在使用的媒体播放器及其原生解码资源
+        MediaSessionManager.releaseAll();
+
         // 关闭阶段：销毁Spring上下文
         ConfigurableApplicationContext springContext = IamreviewingApplication.getSpringContext();
         springContext.close();
@@ -0,0 +1,67 @@
+package org.myself.iamreviewing.async;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 同一类界面请求只保留最新一次的结果
+ * 发起新请求时取消上一次请求，已经在执行的旧请求完成后结果会被丢弃，不会覆盖新结果。
+ * 只能在JavaFX线程中使用
+ * @param <T> 结果类型
+ */
+public class LatestRequest<T> {
+
+    private final ServiceExecutor executor;
+    // 每次发起或取消请求都会递增，回调时用来判断结果是否已过期
+    private long generation;
+    private CompletableFuture<T> pending;
+
+    public LatestRequest(ServiceExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 取消上一次请求并在后台执行新请求
+     * @param task 任务
+     * @param onSuccess 成功回调，只有仍是最新请求时才在JavaFX线程中调用
+     * @param onError 失败回调，只有仍是最新请求时才在JavaFX线程中调用
+     */
+    public void submit(Supplier<T> task, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        cancel();
+        long requestGeneration = generation;
+        CompletableFuture<T> future = executor.supply(task);
+        pending = future;
+        future.whenComplete((result, error) -> Platform.runLater(() -> {
+            if (requestGeneration != generation) {
+                return;
+            }
+            pending = null;
+            if (error == null) {
+                onSuccess.accept(result);
+            } else if (!ServiceExecutor.isCancellation(error)) {
+                onError.accept(ServiceExecutor.unwrap(error));
+            }
+        }));
+    }
+
+    /**
+     * 取消正在进行的请求，其结果不会再回调
+     */
+    public void cancel() {
+        generation++;
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+
+    /**
+     * 是否有尚未返回的请求
+     */
+    public boolean isPending() {
+        return pending != null;
+    }
+}
@@ -0,0 +1,86 @@
+package org.myself.iamreviewing.async;
+
+import jakarta.annotation.PreDestroy;
+import javafx.application.Platform;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 界面调用service层使用的后台线程池
+ * 数据库等阻塞操作都提交到这里执行，结果通过Platform.runLater回到JavaFX线程，界面线程不再等待I/O
+ */
+@Component
+public class ServiceExecutor {
+
+    // 工作线程数，MyBatis连接池较小，没必要开太多
+    private static final int POOL_SIZE = 4;
+    // 等待队列上限，超出时直接失败而不是无限堆积
+    private static final int QUEUE_CAPACITY = 256;
+
+    private final ThreadPoolExecutor executor;
+
+    public ServiceExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "service-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 在后台线程中执行任务
+     * @param task 任务
+     * @return 任务结果，队列已满时返回失败的future
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 在后台线程中执行任务，并在JavaFX线程中处理结果
+     * @param task 任务
+     * @param onSuccess 成功回调，在JavaFX线程中执行
+     * @param onError 失败回调，在JavaFX线程中执行；任务被取消时不会调用
+     * @return 任务对应的future，可用于取消
+     */
+    public <T> CompletableFuture<T> run(Supplier<T> task, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        CompletableFuture<T> future = supply(task);
+        future.whenComplete((result, error) -> Platform.runLater(() -> {
+            if (error == null) {
+                onSuccess.accept(result);
+            } else if (!isCancellation(error)) {
+                onError.accept(unwrap(error));
+            }
+        }));
+        return future;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    static boolean isCancellation(Throwable error) {
+        return unwrap(error) instanceof CancellationException;
+    }
+
+    // 去掉CompletableFuture包装的异常，取出真正的原因
+    static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException)
+                && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
@@ -10,40 +10,26 @@ import java.io.File;
 
 /**
  * 附件预览组件
- * 负责协调各种类型文件的预览，具体预览功能由各个独立的预览器实现
+ * 负责协调各种类型文件的预览，具体预览功能由各个独立的预览器实现；
+ * 每次预览新建一个预览器，由PreviewDriver驱动加载和构建界面，预览被替换或移出界面时统一取消和释放
  */
 public class AttachmentPreview extends VBox {
-    
-    // 各种类型的预览器
-    private PdfPreviewer pdfPreviewer;
-    private DocxPreviewer docxPreviewer;
-    private TextPreviewer textPreviewer;
-    private CodePreviewer codePreviewer;
-    private ImagePreviewer imagePreviewer;
-    private AudioPreviewer audioPreviewer;
-    private VideoPreviewer videoPreviewer;
-    
+
+    // 当前预览的取消标记
+    private PreviewScheduler.Token currentToken;
+
     public AttachmentPreview() {
         this.setAlignment(Pos.CENTER);
         this.setSpacing(10);
         this.setPrefHeight(300);
         this.setStyle("-fx-padding: 10px;");
-        
-        // 初始化预览器
-        initPreviewers();
-    }
-    
-    /**
-     * 初始化各种类型的预览器
-     */
-    private void initPreviewers() {
-        pdfPreviewer = new PdfPreviewer();
-        docxPreviewer = new DocxPreviewer();
-        textPreviewer = new TextPreviewer();
-        codePreviewer = new CodePreviewer();
-        imagePreviewer = new ImagePreviewer();
-        audioPreviewer = new AudioPreviewer();
-        videoPreviewer = new VideoPreviewer();
+
+        // 预览组件被移出界面后，停止尚未完成的加载并释放资源
+        this.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (oldScene != null && newScene == null) {
+                cancelCurrentPreview();
+            }
+        });
     }
 
     /**
@@ -53,43 +39,50 @@ public class AttachmentPreview extends VBox {
      */
     public void showPreview(String filePath, String fileType) {
         File file = new File(filePath);
-        
-        // 清空当前预览内容
+
+        // 取消上一次预览尚未完成的加载并释放其资源，清空当前预览内容
+        cancelCurrentPreview();
         this.getChildren().clear();
-        
+
         // 检查文件是否存在
         if (!file.exists()) {
             showError("附件文件不存在，请检查文件路径");
             return;
         }
-        
-        // 根据文件类型显示不同的预览
+
+        // 根据文件类型选择预览器
+        Previewer<?> previewer;
         switch (fileType) {
             case "文本":
                 // 检查是否是PDF或DOCX文件
                 if (filePath.toLowerCase().endsWith(".pdf")) {
-                    pdfPreviewer.showPreview(file, this);
+                    previewer = new PdfPreviewer();
                 } else if (filePath.toLowerCase().endsWith(".docx")) {
-                    docxPreviewer.showPreview(file, this);
+                    previewer = new DocxPreviewer();
                 } else {
-                    textPreviewer.showPreview(file, this);
+                    previewer = new TextPreviewer();
                 }
                 break;
             case "代码":
-                codePreviewer.showPreview(file, this);
+                previewer = new CodePreviewer();
                 break;
             case "图片":
-                imagePreviewer.showPreview(file, this);
+                previewer = new ImagePreviewer();
                 break;
             case "音频":
-                audioPreviewer.showPreview(file, this);
+                previewer = new AudioPreviewer();
                 break;
             case "视频":
-                videoPreviewer.showPreview(file, this);
+                previewer = new VideoPreviewer();
                 break;
             default:
                 showError("不支持的文件类型预览");
+                return;
         }
+
+        PreviewScheduler.Token token = new PreviewScheduler.Token();
+        currentToken = token;
+        PreviewDriver.show(previewer, file, this, token, this::createErrorLabel);
     }
 
     /**
@@ -98,19 +91,32 @@ public class AttachmentPreview extends VBox {
      */
     private void showError(String message) {
         this.getChildren().clear();
-        
+        this.getChildren().add(createErrorLabel(message));
+    }
+
+    private Label createErrorLabel(String message) {
         Label errorLabel = new Label(message);
         errorLabel.setStyle("-fx-text-fill: red; -fx-font-weight: bold;");
         errorLabel.setWrapText(true);
         errorLabel.setTextAlignment(TextAlignment.CENTER);
-        
-        this.getChildren().add(errorLabel);
+        return errorLabel;
     }
 
     /**
      * 清空预览内容
      */
     public void clear() {
+        cancelCurrentPreview();
         this.getChildren().clear();
     }
-}
\ No newline at end of file
+
+    /**
+     * 取消当前预览的后台任务和界面更新，并释放预览器创建的资源
+     */
+    private void cancelCurrentPreview() {
+        if (currentToken != null) {
+            currentToken.cancel();
+            currentToken = null;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package org.myself.iamreviewing.component;
+
+import javafx.beans.InvalidationListener;
+import javafx.geometry.Bounds;
+import javafx.geometry.Pos;
+import javafx.scene.Parent;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.control.Slider;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaException;
+import javafx.scene.media.MediaPlayer;
+import javafx.scene.media.MediaView;
+import javafx.util.Duration;
+import org.myself.iamreviewing.component.previewer.MediaInfoCache;
+import org.myself.iamreviewing.component.previewer.MediaSessionManager;
+import org.myself.iamreviewing.component.previewer.PreviewScheduler;
+
+import java.io.File;
+
+/**
+ * 按需创建播放器的音视频组件，用于知识点详情页
+ * 初始只显示缓存的封面帧、时长和播放控件，第一次播放时才创建原生播放器；
+ * 滚动到远离可见区域后释放播放器并记住播放位置，再次播放时从该位置继续
+ */
+public class LazyMediaPlayer extends VBox {
+
+    private static final String BUTTON_STYLE = "-fx-background-color: #e2e8f0; -fx-text-fill: #2d3748; -fx-padding: 6px 12px; -fx-border-radius: 4px;";
+    private static final double VIDEO_WIDTH = 800;
+    private static final double VIDEO_HEIGHT = 450;
+    // 播放到该时间点时截取封面帧
+    private static final double POSTER_SECONDS = 1;
+    // 超出可见区域多少个视口高度后释放播放器
+    private static final double RELEASE_VIEWPORTS = 2;
+
+    private final File file;
+    private final boolean video;
+    private final PreviewScheduler.Token token;
+
+    private final Button playBtn = new Button("播放");
+    private final Button stopBtn = new Button("停止");
+    private final Slider progressSlider = new Slider(0, 1, 0);
+    private final Label timeLabel = new Label("00:00 / --:--");
+    private final Label errorLabel = new Label();
+    private ImageView posterView;
+    private MediaView mediaView;
+
+    // 当前播放器，未播放或已释放时为null
+    private MediaPlayer player;
+    private Duration duration;
+    // 播放器释放前的播放位置
+    private Duration position = Duration.ZERO;
+    private boolean posterSaved;
+
+    // 所在的滚动面板及其滚动监听
+    private ScrollPane scrollPane;
+    private final InvalidationListener scrollListener = obs -> releaseIfFarOutOfView();
+
+    /**
+     * @param file 媒体文件
+     * @param video 是否为视频
+     * @param token 所属详情页的取消标记，取消时释放播放器
+     */
+    public LazyMediaPlayer(File file, boolean video, PreviewScheduler.Token token) {
+        this.file = file;
+        this.video = video;
+        this.token = token;
+        this.setSpacing(10);
+
+        playBtn.setStyle(BUTTON_STYLE);
+        playBtn.setOnAction(e -> {
+            if (player != null && player.getStatus() == MediaPlayer.Status.PLAYING) {
+                player.pause();
+                playBtn.setText("播放");
+            } else {
+                play();
+            }
+        });
+
+        stopBtn.setStyle(BUTTON_STYLE);
+        stopBtn.setOnAction(e -> {
+            if (player != null) {
+                player.stop();
+            }
+            position = Duration.ZERO;
+            progressSlider.setValue(0);
+            updateTimeLabel(0);
+            playBtn.setText("播放");
+        });
+
+        // 进度条
+        progressSlider.setShowTickLabels(false);
+        progressSlider.setShowTickMarks(false);
+        progressSlider.setStyle("-fx-pref-height: 8px; -fx-background-color: #e2e8f0;");
+        progressSlider.setOnMousePressed(e -> {
+            if (player != null) {
+                player.pause();
+            }
+        });
+        progressSlider.setOnMouseReleased(e -> {
+            position = Duration.seconds(progressSlider.getValue());
+            if (player != null) {
+                player.seek(position);
+            }
+            play();
+        });
+        // 进度条拖动过程中更新时间显示
+        progressSlider.valueProperty().addListener((obs, oldValue, newValue) -> {
+            if (progressSlider.isValueChanging()) {
+                updateTimeLabel(newValue.doubleValue());
+            }
+        });
+
+        // 时间显示标签
+        timeLabel.setStyle("-fx-font-family: 'Consolas', 'Monaco', monospace; -fx-font-size: 12px; -fx-text-fill: #718096;");
+
+        errorLabel.setStyle("-fx-text-fill: #e53e3e; -fx-font-size: 14px; -fx-padding: 10px 0;");
+        errorLabel.setVisible(false);
+        errorLabel.setManaged(false);
+
+        HBox controls = new HBox(10, playBtn, stopBtn, progressSlider, timeLabel);
+        controls.setAlignment(Pos.CENTER);
+        HBox.setHgrow(progressSlider, Priority.ALWAYS);
+
+        if (video) {
+            // 视频区域先显示封面帧，播放时在其上叠加画面
+            posterView = new ImageView();
+            posterView.setPreserveRatio(true);
+            posterView.setFitWidth(VIDEO_WIDTH);
+            posterView.setFitHeight(VIDEO_HEIGHT);
+            mediaView = new MediaView();
+            mediaView.setPreserveRatio(true);
+            mediaView.setFitWidth(VIDEO_WIDTH);
+            mediaView.setFitHeight(VIDEO_HEIGHT);
+            mediaView.setVisible(false);
+
+            StackPane screen = new StackPane(posterView, mediaView);
+            screen.setPrefSize(VIDEO_WIDTH, VIDEO_HEIGHT);
+            screen.setMaxSize(VIDEO_WIDTH, VIDEO_HEIGHT);
+            screen.setStyle("-fx-background-color: #1a202c; -fx-background-radius: 6px; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 8, 0, 0, 2);");
+
+            controls.setStyle("-fx-padding: 15px; -fx-background-color: #f7fafc; -fx-border-radius: 6px;");
+            this.setAlignment(Pos.CENTER);
+            this.setStyle("-fx-background-color: #f7fafc; -fx-padding: 20px; -fx-border-radius: 6px;");
+            this.getChildren().addAll(screen, controls, errorLabel);
+        } else {
+            controls.setStyle("-fx-padding: 10px; -fx-background-color: #f7fafc; -fx-border-radius: 6px;");
+            this.getChildren().addAll(controls, errorLabel);
+        }
+
+        // 详情页关闭或切换知识点时释放播放器
+        token.onCancel(() -> MediaSessionManager.release(player));
+
+        // 读取缓存的封面帧和时长
+        MediaInfoCache.load(file, video, token).thenAccept(info -> PreviewScheduler.runLater(token, () -> {
+            if (info.poster() != null && posterView.getImage() == null) {
+                posterView.setImage(info.poster());
+                posterSaved = true;
+            }
+            if (info.duration() != null && duration == null) {
+                setDuration(info.duration());
+            }
+        }));
+
+        // 跟随所在滚动面板的滚动，远离可见区域时释放播放器
+        this.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (scrollPane != null) {
+                scrollPane.vvalueProperty().removeListener(scrollListener);
+                scrollPane.viewportBoundsProperty().removeListener(scrollListener);
+                scrollPane = null;
+            }
+            if (newScene != null) {
+                scrollPane = findScrollPane();
+                if (scrollPane != null) {
+                    scrollPane.vvalueProperty().addListener(scrollListener);
+                    scrollPane.viewportBoundsProperty().addListener(scrollListener);
+                }
+            } else {
+                releasePlayer();
+            }
+        });
+    }
+
+    /**
+     * 播放，第一次播放或播放器被释放后创建播放器，从上次的位置继续
+     */
+    private void play() {
+        if (token.isCancelled()) {
+            return;
+        }
+        if (player == null) {
+            try {
+                createPlayer();
+            } catch (MediaException e) {
+                showError((video ? "加载视频失败: " : "加载音频失败: ") + e.getMessage());
+                return;
+            }
+        }
+        player.play();
+        playBtn.setText("暂停");
+    }
+
+    private void createPlayer() {
+        Media media = new Media(file.toURI().toString());
+        MediaPlayer created = MediaSessionManager.open(media);
+        player = created;
+
+        // 播放器数量超出上限被释放后，恢复为占位界面，再次播放时重新创建
+        MediaSessionManager.setOnEvicted(created, () -> {
+            if (player == created) {
+                detachPlayer();
+            }
+        });
+
+        // 当媒体时长可用时更新进度条最大值和时间标签
+        media.durationProperty().addListener((obs, oldDuration, newDuration) -> {
+            setDuration(newDuration);
+            MediaInfoCache.putDuration(file, newDuration);
+        });
+
+        // 进度条更新
+        created.currentTimeProperty().addListener((obs, oldTime, newTime) -> {
+            if (player != created) {
+                return;
+            }
+            position = newTime;
+            if (!progressSlider.isValueChanging()) {
+                progressSlider.setValue(newTime.toSeconds());
+                updateTimeLabel(newTime.toSeconds());
+            }
+            if (video && !posterSaved && newTime.toSeconds() >= POSTER_SECONDS) {
+                savePoster();
+            }
+        });
+
+        // 从释放前的位置继续播放
+        Duration resumeAt = position;
+        if (resumeAt.greaterThan(Duration.ZERO)) {
+            created.setOnReady(() -> created.seek(resumeAt));
+        }
+        created.setOnEndOfMedia(() -> {
+            created.stop();
+            position = Duration.ZERO;
+            playBtn.setText("播放");
+        });
+
+        if (video) {
+            mediaView.setMediaPlayer(created);
+            mediaView.setVisible(true);
+        }
+    }
+
+    // 截取当前画面作为封面帧，下次打开详情页时直接显示
+    private void savePoster() {
+        posterSaved = true;
+        try {
+            Image poster = mediaView.snapshot(null, null);
+            posterView.setImage(poster);
+            MediaInfoCache.savePoster(file, poster);
+        } catch (RuntimeException e) {
+            System.err.println("截取视频封面失败: " + file.getName() + " - " + e.getMessage());
+        }
+    }
+
+    // 播放器远离可见区域时释放；正在播放的音频不在画面上，继续播放
+    private void releaseIfFarOutOfView() {
+        if (player == null || scrollPane == null) {
+            return;
+        }
+        if (!video && player.getStatus() == MediaPlayer.Status.PLAYING) {
+            return;
+        }
+        Bounds viewport = scrollPane.localToScene(scrollPane.getBoundsInLocal());
+        Bounds self = this.localToScene(this.getBoundsInLocal());
+        double margin = viewport.getHeight() * RELEASE_VIEWPORTS;
+        if (self.getMaxY() < viewport.getMinY() - margin || self.getMinY() > viewport.getMaxY() + margin) {
+            releasePlayer();
+        }
+    }
+
+    /**
+     * 释放播放器，保留播放位置和界面状态
+     */
+    private void releasePlayer() {
+        if (player != null) {
+            MediaPlayer released = player;
+            detachPlayer();
+            MediaSessionManager.release(released);
+        }
+    }
+
+    // 断开界面与播放器的关联，恢复为占位界面
+    private void detachPlayer() {
+        player = null;
+        if (video) {
+            mediaView.setMediaPlayer(null);
+            mediaView.setVisible(false);
+        }
+        playBtn.setText("播放");
+    }
+
+    private void setDuration(Duration newDuration) {
+        if (newDuration == null || newDuration.isUnknown() || newDuration.isIndefinite()) {
+            return;
+        }
+        duration = newDuration;
+        progressSlider.setMax(newDuration.toSeconds());
+        updateTimeLabel(progressSlider.getValue());
+    }
+
+    private void updateTimeLabel(double currentSeconds) {
+        String total = duration == null ? "--:--" : formatTime(duration.toSeconds());
+        timeLabel.setText(formatTime(currentSeconds) + " / " + total);
+    }
+
+    private static String formatTime(double seconds) {
+        int totalSeconds = (int) Math.floor(seconds);
+        return String.format("%02d:%02d", totalSeconds / 60, totalSeconds % 60);
+    }
+
+    private ScrollPane findScrollPane() {
+        Parent parent = this.getParent();
+        while (parent != null && !(parent instanceof ScrollPane)) {
+            parent = parent.getParent();
+        }
+        return (ScrollPane) parent;
+    }
+
+    private void showError(String message) {
+        errorLabel.setText(message);
+        errorLabel.setVisible(true);
+        errorLabel.setManaged(true);
+        playBtn.setDisable(true);
+    }
+}
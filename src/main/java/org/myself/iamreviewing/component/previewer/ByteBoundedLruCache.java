@@ -0,0 +1,67 @@
+package org.myself.iamreviewing.component.previewer;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * 按字节数限制总大小的LRU缓存
+ * 每个值的大小由sizeOf估算，总大小超出上限时淘汰最久未使用的值；单个值超过上限时不缓存。
+ * 供PdfPageCache、ImageTileCache、HighlightCache等进程级缓存共用。所有方法线程安全
+ * @param <K> 键
+ * @param <V> 值
+ */
+public final class ByteBoundedLruCache<K, V> {
+
+    private final long maxBytes;
+    private final ToLongFunction<V> sizeOf;
+    // accessOrder为true，遍历顺序即从最久未使用到最近使用
+    private final Map<K, V> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes;
+
+    /**
+     * @param maxBytes 缓存上限
+     * @param sizeOf 估算单个值占用的字节数
+     */
+    public ByteBoundedLruCache(long maxBytes, ToLongFunction<V> sizeOf) {
+        this.maxBytes = maxBytes;
+        this.sizeOf = sizeOf;
+    }
+
+    /**
+     * 获取已缓存的值，命中时视为最近使用
+     * @return 缓存的值，不存在时返回null
+     */
+    public synchronized V get(K key) {
+        return cache.get(key);
+    }
+
+    /**
+     * 缓存值，超出上限时淘汰最久未使用的值
+     */
+    public synchronized void put(K key, V value) {
+        long size = sizeOf.applyAsLong(value);
+        if (size > maxBytes) {
+            return;
+        }
+        V previous = cache.put(key, value);
+        if (previous != null) {
+            currentBytes -= sizeOf.applyAsLong(previous);
+        }
+        currentBytes += size;
+
+        Iterator<V> iterator = cache.values().iterator();
+        while (currentBytes > maxBytes && iterator.hasNext()) {
+            currentBytes -= sizeOf.applyAsLong(iterator.next());
+            iterator.remove();
+        }
+    }
+
+    /**
+     * 当前缓存的总字节数
+     */
+    public synchronized long currentBytes() {
+        return currentBytes;
+    }
+}
@@ -0,0 +1,126 @@
+package org.myself.iamreviewing.component.previewer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * 文本编码探测
+ * 依次检查BOM、UTF-8合法性和GBK双字节结构，只读取文件开头的一段样本。
+ * 返回的是编码名称，与预览器编码下拉框中的选项一致
+ */
+public final class CharsetDetector {
+
+    /**
+     * 探测时读取的样本大小
+     */
+    public static final int SAMPLE_BYTES = 64 * 1024;
+    // 非ASCII字节中不符合GBK结构的比例上限
+    private static final double GBK_MAX_INVALID_RATIO = 0.05;
+
+    private CharsetDetector() {
+    }
+
+    /**
+     * 读取文件开头的样本并探测编码，读取失败时返回UTF-8
+     */
+    public static String detect(File file) {
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            return detect(in.readNBytes(SAMPLE_BYTES));
+        } catch (IOException e) {
+            System.err.println("探测文件编码失败: " + e.getMessage());
+            return "UTF-8";
+        }
+    }
+
+    /**
+     * 探测样本的编码
+     * @param sample 文件开头的字节，可能在多字节字符中间截断
+     * @return UTF-8、UTF-16、UTF-32、GBK或ISO-8859-1
+     */
+    public static String detect(byte[] sample) {
+        int length = sample.length;
+        int b0 = length > 0 ? sample[0] & 0xFF : -1;
+        int b1 = length > 1 ? sample[1] & 0xFF : -1;
+        int b2 = length > 2 ? sample[2] & 0xFF : -1;
+        int b3 = length > 3 ? sample[3] & 0xFF : -1;
+
+        // BOM，UTF-32LE的BOM以UTF-16LE的BOM开头，需要先判断
+        if (b0 == 0xEF && b1 == 0xBB && b2 == 0xBF) {
+            return "UTF-8";
+        }
+        if ((b0 == 0xFF && b1 == 0xFE && b2 == 0 && b3 == 0) || (b0 == 0 && b1 == 0 && b2 == 0xFE && b3 == 0xFF)) {
+            return "UTF-32";
+        }
+        if ((b0 == 0xFE && b1 == 0xFF) || (b0 == 0xFF && b1 == 0xFE)) {
+            return "UTF-16";
+        }
+
+        if (isValidUtf8(sample)) {
+            return "UTF-8";
+        }
+        return looksLikeGbk(sample) ? "GBK" : "ISO-8859-1";
+    }
+
+    // 严格按UTF-8解码，末尾被截断的多字节字符不算错误
+    private static boolean isValidUtf8(byte[] sample) {
+        int end = sample.length;
+        // 去掉末尾不完整的字符：最多回退3个字节找到首字节
+        for (int i = 1; i <= 3 && end - i >= 0; i++) {
+            int b = sample[end - i] & 0xFF;
+            if (b >= 0xC0) {
+                int expected = b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : 2;
+                if (i < expected) {
+                    end -= i;
+                }
+                break;
+            }
+            if (b < 0x80) {
+                break;
+            }
+        }
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        try {
+            decoder.decode(ByteBuffer.wrap(sample, 0, end));
+            return true;
+        } catch (CharacterCodingException e) {
+            return false;
+        }
+    }
+
+    // 统计非ASCII字节能否组成GBK双字节字符：首字节0x81-0xFE，尾字节0x40-0xFE且不为0x7F
+    private static boolean looksLikeGbk(byte[] sample) {
+        int highBytes = 0;
+        int invalid = 0;
+        int i = 0;
+        while (i < sample.length) {
+            int b = sample[i] & 0xFF;
+            if (b < 0x80) {
+                i++;
+                continue;
+            }
+            highBytes++;
+            if (i + 1 >= sample.length) {
+                // 样本末尾截断
+                break;
+            }
+            int trail = sample[i + 1] & 0xFF;
+            if (b >= 0x81 && b <= 0xFE && trail >= 0x40 && trail <= 0xFE && trail != 0x7F) {
+                highBytes++;
+                i += 2;
+            } else {
+                invalid++;
+                i++;
+            }
+        }
+        return highBytes > 0 && (double) invalid / highBytes <= GBK_MAX_INVALID_RATIO;
+    }
+}
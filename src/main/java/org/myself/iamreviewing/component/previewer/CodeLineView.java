@@ -0,0 +1,102 @@
+package org.myself.iamreviewing.component.previewer;
+
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.input.Clipboard;
+import javafx.scene.input.ClipboardContent;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.layout.HBox;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+import java.util.stream.Collectors;
+
+/**
+ * 按行虚拟化的代码视图
+ * 列表项只是行号，ListView只为可见行创建单元格，每个单元格显示一行的高亮片段，
+ * 节点数量只与可见行数有关，与文件大小无关。支持多选后Ctrl+C复制选中的行
+ */
+public class CodeLineView extends ListView<Integer> {
+
+    private final LineNumberList lines = new LineNumberList();
+    private final Font font;
+    private final Color lineNumberColor = Color.web("#858585");
+    private HighlightedCode code;
+
+    /**
+     * @param backgroundColor 背景颜色，如"#1e1e1e"
+     * @param fontSize 字号
+     */
+    public CodeLineView(String backgroundColor, double fontSize) {
+        this.font = Font.font(Font.getFamilies().contains("Consolas") ? "Consolas" : "Monospaced", fontSize);
+        setItems(lines);
+        getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        setCellFactory(list -> new CodeLineCell());
+        // 行高固定，滚动时无需测量每个单元格
+        setFixedCellSize(Math.ceil(fontSize * 1.5));
+        setStyle("-fx-background-color: " + backgroundColor + "; " +
+                "-fx-control-inner-background: " + backgroundColor + "; " +
+                "-fx-control-inner-background-alt: " + backgroundColor + "; " +
+                "-fx-selection-bar: #264f78; -fx-selection-bar-non-focused: #3a3d41;");
+
+        // 复制选中的行
+        KeyCombination copy = new KeyCodeCombination(KeyCode.C, KeyCombination.SHORTCUT_DOWN);
+        setOnKeyPressed(e -> {
+            if (copy.match(e) && code != null) {
+                ClipboardContent content = new ClipboardContent();
+                content.putString(getSelectionModel().getSelectedIndices().stream()
+                        .sorted()
+                        .map(code::line)
+                        .collect(Collectors.joining(System.lineSeparator())));
+                Clipboard.getSystemClipboard().setContent(content);
+                e.consume();
+            }
+        });
+    }
+
+    /**
+     * 显示高亮后的代码
+     */
+    public void setCode(HighlightedCode code) {
+        this.code = code;
+        getSelectionModel().clearSelection();
+        lines.setSize(0);
+        lines.setSize(code == null ? 0 : code.lineCount());
+        scrollTo(0);
+    }
+
+    private class CodeLineCell extends ListCell<Integer> {
+        private final Text lineNumber = new Text();
+        private final HBox content = new HBox();
+        private final HBox row = new HBox(12, lineNumber, content);
+
+        CodeLineCell() {
+            lineNumber.setFont(font);
+            lineNumber.setFill(lineNumberColor);
+            setStyle("-fx-padding: 0 8px;");
+        }
+
+        @Override
+        protected void updateItem(Integer index, boolean empty) {
+            super.updateItem(index, empty);
+            setText(null);
+            if (empty || index == null || code == null) {
+                setGraphic(null);
+                return;
+            }
+            lineNumber.setText(String.format("%4d", index + 1));
+            content.getChildren().clear();
+            for (HighlightedCode.Segment segment : code.segments(index)) {
+                Text text = new Text(segment.text());
+                text.setFont(font);
+                text.setFill(segment.type().color());
+                content.getChildren().add(text);
+            }
+            setGraphic(row);
+        }
+    }
+}
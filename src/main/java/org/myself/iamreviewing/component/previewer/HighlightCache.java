@@ -0,0 +1,111 @@
+package org.myself.iamreviewing.component.previewer;
+
+import javafx.application.Platform;
+import org.myself.iamreviewing.component.previewer.SyntaxHighlighter.Language;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * 代码高亮结果的进程级缓存
+ * 以"文件路径+修改时间+文件大小+语言"为键，预览区、放大窗口和详情页打开同一文件时共用一份高亮结果；
+ * 文件读取和高亮都在PreviewScheduler的工作线程中进行，同一文件同时被多处请求时只高亮一次。
+ * 按估算的内存占用限制总大小，超出时淘汰最久未使用的结果。所有方法线程安全
+ */
+public final class HighlightCache {
+
+    // 缓存上限
+    private static final long MAX_BYTES = 64L * 1024 * 1024;
+
+    private static final ByteBoundedLruCache<CodeKey, HighlightedCode> cache =
+            new ByteBoundedLruCache<>(MAX_BYTES, HighlightedCode::estimatedBytes);
+    // 正在高亮的文件
+    private static final Map<CodeKey, CompletableFuture<HighlightedCode>> loading = new HashMap<>();
+
+    private record CodeKey(String path, long lastModified, long size, Language language) {
+        static CodeKey of(File file) {
+            return new CodeKey(file.getAbsolutePath(), file.lastModified(), file.length(),
+                    SyntaxHighlighter.languageFor(extensionOf(file.getName())));
+        }
+    }
+
+    private HighlightCache() {
+    }
+
+    /**
+     * 获取文件的高亮结果
+     * 已缓存时直接回调，否则在后台读取并高亮，完成后在JavaFX线程中回调
+     * @param file 代码文件
+     * @param onLoaded 高亮完成时的回调
+     * @param onError 读取失败时的回调
+     */
+    public static void load(File file, Consumer<HighlightedCode> onLoaded, Consumer<IOException> onError) {
+        CompletableFuture<HighlightedCode> future = get(file);
+        if (future.isDone() && !future.isCompletedExceptionally()) {
+            runOnFxThread(() -> onLoaded.accept(future.join()));
+            return;
+        }
+        future.whenComplete((code, error) -> Platform.runLater(() -> {
+            if (error == null) {
+                onLoaded.accept(code);
+            } else {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                onError.accept(cause instanceof UncheckedIOException unchecked
+                        ? unchecked.getCause() : new IOException(cause));
+            }
+        }));
+    }
+
+    /**
+     * 获取文件的高亮结果，已缓存时返回已完成的future，否则在后台读取并高亮
+     * @return 高亮结果，读取失败时以UncheckedIOException异常完成
+     */
+    public static CompletableFuture<HighlightedCode> get(File file) {
+        CodeKey key = CodeKey.of(file);
+        synchronized (HighlightCache.class) {
+            HighlightedCode cached = cache.get(key);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+            return loading.computeIfAbsent(key,
+                    k -> CompletableFuture.supplyAsync(() -> highlight(file, k), PreviewScheduler.executor()));
+        }
+    }
+
+    // 在后台线程中读取并高亮，完成后放入缓存
+    private static HighlightedCode highlight(File file, CodeKey key) {
+        try {
+            String content = Files.readString(file.toPath(), Charset.forName(CharsetDetector.detect(file)));
+            HighlightedCode code = HighlightedCode.of(content, key.language());
+            cache.put(key, code);
+            return code;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            synchronized (HighlightCache.class) {
+                loading.remove(key);
+            }
+        }
+    }
+
+    private static void runOnFxThread(Runnable action) {
+        if (Platform.isFxApplicationThread()) {
+            action.run();
+        } else {
+            Platform.runLater(action);
+        }
+    }
+
+    private static String extensionOf(String fileName) {
+        int lastDotIndex = fileName.lastIndexOf('.');
+        return lastDotIndex == -1 ? "" : fileName.substring(lastDotIndex).toLowerCase();
+    }
+}
@@ -0,0 +1,164 @@
+package org.myself.iamreviewing.component.previewer;
+
+import org.myself.iamreviewing.component.previewer.SyntaxHighlighter.Language;
+import org.myself.iamreviewing.component.previewer.SyntaxHighlighter.Token;
+import org.myself.iamreviewing.component.previewer.SyntaxHighlighter.TokenType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 高亮后的代码
+ * 记号流和行首偏移都存成基本类型数组，按行取出该行的片段，供虚拟化的代码视图只为可见行创建节点。
+ * 创建后不可变，可在线程间共享
+ */
+public final class HighlightedCode {
+
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+    // 分块高亮时每块的字符数
+    private static final int CHUNK_CHARS = 256 * 1024;
+
+    /**
+     * 一行中的一段同类文本
+     */
+    public record Segment(String text, TokenType type) {
+    }
+
+    private final String content;
+    // 第i行从lineStarts[i]开始，最后一个元素为content.length() + 1，便于统一计算行尾
+    private final int[] lineStarts;
+    // 第i个记号为[tokenStarts[i], tokenStarts[i + 1])，最后一个元素为content.length()
+    private final int[] tokenStarts;
+    private final byte[] tokenTypes;
+
+    private HighlightedCode(String content, int[] lineStarts, int[] tokenStarts, byte[] tokenTypes) {
+        this.content = content;
+        this.lineStarts = lineStarts;
+        this.tokenStarts = tokenStarts;
+        this.tokenTypes = tokenTypes;
+    }
+
+    /**
+     * 对代码做高亮，在调用线程中进行，大文件不要在JavaFX线程中调用
+     * @param content 代码内容
+     * @param fileExtension 扩展名，用于选择语言规则
+     */
+    public static HighlightedCode of(String content, String fileExtension) {
+        return of(content, SyntaxHighlighter.languageFor(fileExtension));
+    }
+
+    /**
+     * 按行边界分块高亮，多行注释的状态在块之间延续；
+     * 每块的记号写入数组后即丢弃，同时存在的记号对象只有一块的量
+     */
+    public static HighlightedCode of(String content, Language language) {
+        int[] tokenStarts = new int[64];
+        byte[] tokenTypes = new byte[64];
+        int count = 0;
+        List<Token> chunk = new ArrayList<>();
+        boolean inBlockComment = false;
+        int from = 0;
+        while (from < content.length()) {
+            int to = chunkEnd(content, from);
+            inBlockComment = SyntaxHighlighter.tokenizeRange(content, from, to, inBlockComment, language, chunk);
+            if (count + chunk.size() + 1 > tokenStarts.length) {
+                int capacity = Math.max(tokenStarts.length * 2, count + chunk.size() + 1);
+                tokenStarts = Arrays.copyOf(tokenStarts, capacity);
+                tokenTypes = Arrays.copyOf(tokenTypes, capacity);
+            }
+            for (Token token : chunk) {
+                tokenStarts[count] = token.start();
+                tokenTypes[count] = (byte) token.type().ordinal();
+                count++;
+            }
+            chunk.clear();
+            from = to;
+        }
+        tokenStarts[count] = content.length();
+        return new HighlightedCode(content, lineStarts(content),
+                Arrays.copyOf(tokenStarts, count + 1), Arrays.copyOf(tokenTypes, count));
+    }
+
+    // 从from起约CHUNK_CHARS个字符后的下一个行首，不足时为文本末尾
+    private static int chunkEnd(String content, int from) {
+        if (content.length() - from <= CHUNK_CHARS) {
+            return content.length();
+        }
+        int newline = content.indexOf('\n', from + CHUNK_CHARS);
+        return newline < 0 ? content.length() : newline + 1;
+    }
+
+    private static int[] lineStarts(String content) {
+        int[] starts = new int[64];
+        int count = 0;
+        int position = 0;
+        while (true) {
+            if (count + 1 >= starts.length) {
+                starts = Arrays.copyOf(starts, starts.length * 2);
+            }
+            starts[count++] = position;
+            int newline = content.indexOf('\n', position);
+            if (newline < 0) {
+                break;
+            }
+            position = newline + 1;
+        }
+        starts[count] = content.length() + 1;
+        return Arrays.copyOf(starts, count + 1);
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    /**
+     * 估算占用的内存字节数，用于限制缓存大小
+     */
+    public long estimatedBytes() {
+        return content.length() * 2L + lineStarts.length * 4L + tokenStarts.length * 4L + tokenTypes.length;
+    }
+
+    public int lineCount() {
+        return lineStarts.length - 1;
+    }
+
+    /**
+     * 取一行的文本，不含换行符
+     */
+    public String line(int index) {
+        return content.substring(lineStarts[index], lineEnd(index));
+    }
+
+    /**
+     * 取一行中按记号类型划分的片段
+     */
+    public List<Segment> segments(int index) {
+        int start = lineStarts[index];
+        int end = lineEnd(index);
+        List<Segment> segments = new ArrayList<>();
+        if (start >= end) {
+            return segments;
+        }
+        // 找到包含行首的记号
+        int token = Arrays.binarySearch(tokenStarts, 0, tokenTypes.length, start);
+        if (token < 0) {
+            token = -token - 2;
+        }
+        for (; token < tokenTypes.length && tokenStarts[token] < end; token++) {
+            int segmentStart = Math.max(tokenStarts[token], start);
+            int segmentEnd = Math.min(tokenStarts[token + 1], end);
+            segments.add(new Segment(content.substring(segmentStart, segmentEnd), TOKEN_TYPES[tokenTypes[token]]));
+        }
+        return segments;
+    }
+
+    // 行尾偏移，不含\n和\r
+    private int lineEnd(int index) {
+        int end = lineStarts[index + 1] - 1;
+        if (end > lineStarts[index] && content.charAt(end - 1) == '\r') {
+            end--;
+        }
+        return end;
+    }
+}
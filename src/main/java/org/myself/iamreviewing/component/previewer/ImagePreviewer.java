@@ -1,6 +1,7 @@
 package org.myself.iamreviewing.component.previewer;
 
 import javafx.geometry.Pos;
+import javafx.scene.Node;
 import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
@@ -9,53 +10,78 @@ import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
+import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 图片文件预览器
  */
-public class ImagePreviewer implements Previewer {
+public class ImagePreviewer implements Previewer<ImagePreviewer.PreviewImage> {
 
-    @Override
-    public void showPreview(File file, VBox parentContainer) {
-        Label title = new Label("图片预览 - " + file.getName());
-        title.setStyle("-fx-font-weight: bold;");
-
-        ImageView imageView = new ImageView();
-        imageView.setPreserveRatio(true);
-
-        try {
-            Image image = new Image(file.toURI().toString());
-            imageView.setImage(image);
+    /**
+     * 按预览尺寸解码的图片
+     */
+    public record PreviewImage(File file, Image image) {
+    }
 
-            // 根据图片实际尺寸动态调整显示大小
-            double imageWidth = image.getWidth();
-            double imageHeight = image.getHeight();
+    @Override
+    public CompletableFuture<PreviewImage> load(File file, PreviewScheduler.Token token) {
+        // 预览区域最大500x300，缩略图尺寸足够，无需解码原图
+        return loadImage(file, token);
+    }
 
-            // 计算合适的显示尺寸，最大宽度500，最大高度300
-            double displayWidth, displayHeight;
-            if (imageWidth > imageHeight) {
-                // 宽图
-                displayWidth = Math.min(imageWidth, 500);
-                displayHeight = (displayWidth / imageWidth) * imageHeight;
+    /**
+     * 在后台查找缩略图或按缩略图尺寸解码，长边不超过ThumbnailStore.IMAGE_THUMBNAIL_SIZE
+     */
+    public static CompletableFuture<PreviewImage> loadImage(File file, PreviewScheduler.Token token) {
+        CompletableFuture<PreviewImage> result = new CompletableFuture<>();
+        PreviewImageLoader.load(file, token, image -> {
+            if (image.isError()) {
+                result.completeExceptionally(image.getException() == null
+                        ? new IOException("未知错误") : image.getException());
             } else {
-                // 高图或方图
-                displayHeight = Math.min(imageHeight, 300);
-                displayWidth = (displayHeight / imageHeight) * imageWidth;
+                result.complete(new PreviewImage(file, image));
             }
+        });
+        return result;
+    }
+
+    @Override
+    public Node render(PreviewImage model) {
+        File file = model.file();
+        Image image = model.image();
+        Label title = new Label("图片预览 - " + file.getName());
+        title.setStyle("-fx-font-weight: bold;");
 
-            imageView.setFitWidth(displayWidth);
-            imageView.setFitHeight(displayHeight);
+        ImageView imageView = new ImageView(image);
+        imageView.setPreserveRatio(true);
 
-        } catch (Exception e) {
-            showError("加载图片失败: " + e.getMessage(), parentContainer);
-            return;
+        // 根据图片实际尺寸动态调整显示大小
+        double imageWidth = image.getWidth();
+        double imageHeight = image.getHeight();
+
+        // 计算合适的显示尺寸，最大宽度500，最大高度300
+        double displayWidth, displayHeight;
+        if (imageWidth > imageHeight) {
+            // 宽图
+            displayWidth = Math.min(imageWidth, 500);
+            displayHeight = (displayWidth / imageWidth) * imageHeight;
+        } else {
+            // 高图或方图
+            displayHeight = Math.min(imageHeight, 300);
+            displayWidth = (displayHeight / imageHeight) * imageWidth;
         }
 
-        ScrollPane scrollPane = new ScrollPane(imageView);
+        imageView.setFitWidth(displayWidth);
+        imageView.setFitHeight(displayHeight);
+        StackPane imagePane = new StackPane(imageView);
+
+        ScrollPane scrollPane = new ScrollPane(imagePane);
         scrollPane.setFitToWidth(true);
         scrollPane.setFitToHeight(true);
         scrollPane.setStyle("-fx-background-color: #f0f0f0;");
@@ -68,76 +94,13 @@ public class ImagePreviewer implements Previewer {
         // 旋转功能
         rotateBtn.setOnAction(e -> imageView.setRotate(imageView.getRotate() + 90));
 
-        // 放大查看
+        // 放大查看，GIF保留动画用ImageView显示，其余图片分块按需解码
         enlargeBtn.setOnAction(e -> {
-            Stage stage = new Stage();
-            stage.setTitle("放大查看 - " + file.getName());
-
-            Image image = imageView.getImage();
-            ImageView largeImageView = new ImageView(image);
-            largeImageView.setPreserveRatio(true);
-
-            // 根据图片实际尺寸设置初始窗口大小
-            double imageWidth = image.getWidth();
-            double imageHeight = image.getHeight();
-
-            // 计算合适的窗口大小，最大宽度1000，最大高度800
-            double windowWidth = Math.min(imageWidth + 40, 1000);
-            double windowHeight = Math.min(imageHeight + 80, 800);
-
-            // 设置图片显示大小，保持原始比例
-            largeImageView.setFitWidth(imageWidth > 1000 ? 1000 : imageWidth);
-            largeImageView.setFitHeight(imageHeight > 800 ? 800 : imageHeight);
-
-            ScrollPane largeScrollPane = new ScrollPane(largeImageView);
-            largeScrollPane.setFitToWidth(true);
-            largeScrollPane.setFitToHeight(true);
-            largeScrollPane.setStyle("-fx-background-color: #f0f0f0;");
-
-            // 放大视图的旋转按钮
-            Button largeRotateBtn = new Button("旋转");
-            largeRotateBtn.setOnAction(ev -> largeImageView.setRotate(largeImageView.getRotate() + 90));
-
-            // 添加缩放控制
-            ComboBox<String> zoomCombo = new ComboBox<>();
-            zoomCombo.getItems().addAll("50%", "75%", "100%", "125%", "150%", "200%", "适应窗口");
-            zoomCombo.setValue("100%");
-
-            zoomCombo.setOnAction(ev -> {
-                String zoomValue = zoomCombo.getValue();
-                if ("适应窗口".equals(zoomValue)) {
-                    largeImageView.setFitWidth(windowWidth - 40);
-                    largeImageView.setFitHeight(windowHeight - 80);
-                } else {
-                    double zoom = Double.parseDouble(zoomValue.replace("%", "")) / 100;
-                    largeImageView.setFitWidth(image.getWidth() * zoom);
-                    largeImageView.setFitHeight(image.getHeight() * zoom);
-                }
-            });
-
-            // 窗口大小变化时，更新"适应窗口"选项的显示
-            stage.widthProperty().addListener((obs, oldWidth, newWidth) -> {
-                if ("适应窗口".equals(zoomCombo.getValue())) {
-                    largeImageView.setFitWidth(newWidth.doubleValue() - 40);
-                }
-            });
-
-            stage.heightProperty().addListener((obs, oldHeight, newHeight) -> {
-                if ("适应窗口".equals(zoomCombo.getValue())) {
-                    largeImageView.setFitHeight(newHeight.doubleValue() - 80);
-                }
-            });
-
-            HBox largeControls = new HBox(10, largeRotateBtn, zoomCombo);
-            largeControls.setAlignment(Pos.CENTER_LEFT);
-            largeControls.setStyle("-fx-padding: 10px;");
-
-            VBox largeVBox = new VBox(10, largeControls, largeScrollPane);
-            largeVBox.setStyle("-fx-padding: 10px;");
-            VBox.setVgrow(largeScrollPane, Priority.ALWAYS);
-
-            stage.setScene(new javafx.scene.Scene(largeVBox, windowWidth, windowHeight));
-            stage.show();
+            if (file.getName().toLowerCase().endsWith(".gif")) {
+                showEnlargeAnimatedView(file);
+            } else {
+                showEnlargeTiledView(file);
+            }
         });
 
         // 工具栏
@@ -145,20 +108,135 @@ public class ImagePreviewer implements Previewer {
         toolbar.setAlignment(Pos.CENTER_LEFT);
         toolbar.getChildren().addAll(enlargeBtn, rotateBtn);
 
-        parentContainer.getChildren().addAll(title, toolbar, scrollPane);
+        VBox root = new VBox(10, title, toolbar, scrollPane);
+        VBox.setVgrow(root, Priority.ALWAYS);
+        return root;
     }
 
     /**
-     * 显示错误信息
-     * @param message 错误信息
-     * @param container 容器，错误信息将添加到这个容器中
+     * 用ImageView显示完整的原图，用于需要保留动画的GIF
      */
-    private void showError(String message, VBox container) {
-        container.getChildren().clear();
-        Label errorLabel = new Label(message);
-        errorLabel.setStyle("-fx-text-fill: red; -fx-font-weight: bold;");
-        errorLabel.setWrapText(true);
-        errorLabel.setAlignment(Pos.CENTER);
-        container.getChildren().add(errorLabel);
+    private void showEnlargeAnimatedView(File file) {
+        Stage stage = new Stage();
+        stage.setTitle("放大查看 - " + file.getName());
+
+        Image image = new Image(file.toURI().toString());
+        ImageView largeImageView = new ImageView(image);
+        largeImageView.setPreserveRatio(true);
+
+        // 根据图片实际尺寸设置初始窗口大小
+        double imageWidth = image.getWidth();
+        double imageHeight = image.getHeight();
+
+        // 计算合适的窗口大小，最大宽度1000，最大高度800
+        double windowWidth = Math.min(imageWidth + 40, 1000);
+        double windowHeight = Math.min(imageHeight + 80, 800);
+
+        // 设置图片显示大小，保持原始比例
+        largeImageView.setFitWidth(imageWidth > 1000 ? 1000 : imageWidth);
+        largeImageView.setFitHeight(imageHeight > 800 ? 800 : imageHeight);
+
+        ScrollPane largeScrollPane = new ScrollPane(largeImageView);
+        largeScrollPane.setFitToWidth(true);
+        largeScrollPane.setFitToHeight(true);
+        largeScrollPane.setStyle("-fx-background-color: #f0f0f0;");
+
+        // 放大视图的旋转按钮
+        Button largeRotateBtn = new Button("旋转");
+        largeRotateBtn.setOnAction(ev -> largeImageView.setRotate(largeImageView.getRotate() + 90));
+
+        // 添加缩放控制
+        ComboBox<String> zoomCombo = new ComboBox<>();
+        zoomCombo.getItems().addAll("50%", "75%", "100%", "125%", "150%", "200%", "适应窗口");
+        zoomCombo.setValue("100%");
+
+        zoomCombo.setOnAction(ev -> {
+            String zoomValue = zoomCombo.getValue();
+            if ("适应窗口".equals(zoomValue)) {
+                largeImageView.setFitWidth(windowWidth - 40);
+                largeImageView.setFitHeight(windowHeight - 80);
+            } else {
+                double zoom = Double.parseDouble(zoomValue.replace("%", "")) / 100;
+                largeImageView.setFitWidth(image.getWidth() * zoom);
+                largeImageView.setFitHeight(image.getHeight() * zoom);
+            }
+        });
+
+        // 窗口大小变化时，更新"适应窗口"选项的显示
+        stage.widthProperty().addListener((obs, oldWidth, newWidth) -> {
+            if ("适应窗口".equals(zoomCombo.getValue())) {
+                largeImageView.setFitWidth(newWidth.doubleValue() - 40);
+            }
+        });
+
+        stage.heightProperty().addListener((obs, oldHeight, newHeight) -> {
+            if ("适应窗口".equals(zoomCombo.getValue())) {
+                largeImageView.setFitHeight(newHeight.doubleValue() - 80);
+            }
+        });
+
+        HBox largeControls = new HBox(10, largeRotateBtn, zoomCombo);
+        largeControls.setAlignment(Pos.CENTER_LEFT);
+        largeControls.setStyle("-fx-padding: 10px;");
+
+        VBox largeVBox = new VBox(10, largeControls, largeScrollPane);
+        largeVBox.setStyle("-fx-padding: 10px;");
+        VBox.setVgrow(largeScrollPane, Priority.ALWAYS);
+
+        stage.setScene(new javafx.scene.Scene(largeVBox, windowWidth, windowHeight));
+        stage.show();
+    }
+
+    /**
+     * 用分块查看器显示大图，只解码视野内的块，内存占用与原图尺寸无关
+     */
+    private void showEnlargeTiledView(File file) {
+        Stage stage = new Stage();
+        stage.setTitle("放大查看 - " + file.getName());
+
+        TiledImageViewer viewer = new TiledImageViewer(file);
+        VBox.setVgrow(viewer, Priority.ALWAYS);
+
+        // 放大视图的旋转按钮
+        Button largeRotateBtn = new Button("旋转");
+        largeRotateBtn.setOnAction(ev -> viewer.rotate());
+
+        // 添加缩放控制，滚轮缩放后显示当前比例
+        ComboBox<String> zoomCombo = new ComboBox<>();
+        zoomCombo.getItems().addAll("50%", "75%", "100%", "125%", "150%", "200%", "适应窗口");
+        zoomCombo.setValue("适应窗口");
+        boolean[] updatingZoom = {false};
+
+        zoomCombo.setOnAction(ev -> {
+            String zoomValue = zoomCombo.getValue();
+            if (updatingZoom[0] || zoomValue == null) {
+                return;
+            }
+            if ("适应窗口".equals(zoomValue)) {
+                viewer.fitToView();
+            } else {
+                viewer.setZoom(Double.parseDouble(zoomValue.replace("%", "")) / 100);
+            }
+        });
+
+        viewer.scaleProperty().addListener((obs, oldScale, newScale) -> {
+            updatingZoom[0] = true;
+            zoomCombo.setValue(viewer.isFitting() ? "适应窗口" : Math.round(newScale.doubleValue() * 100) + "%");
+            updatingZoom[0] = false;
+        });
+
+        Label hintLabel = new Label("拖动平移，滚轮缩放");
+        hintLabel.setStyle("-fx-text-fill: #718096;");
+
+        HBox largeControls = new HBox(10, largeRotateBtn, zoomCombo, hintLabel);
+        largeControls.setAlignment(Pos.CENTER_LEFT);
+        largeControls.setStyle("-fx-padding: 10px;");
+
+        VBox largeVBox = new VBox(10, largeControls, viewer);
+        largeVBox.setStyle("-fx-padding: 10px;");
+
+        stage.setScene(new javafx.scene.Scene(largeVBox, 1000, 800));
+        stage.setOnHidden(ev -> viewer.dispose());
+        stage.show();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,51 @@
+package org.myself.iamreviewing.component.previewer;
+
+import javafx.scene.image.Image;
+
+import java.io.File;
+
+/**
+ * 大图分块解码结果的进程级缓存
+ * 以"文件路径+修改时间+缩放级别+块坐标"为键，按解码后的像素字节数限制总大小，
+ * 超出时淘汰最久未使用的块。所有方法线程安全
+ */
+public final class ImageTileCache {
+
+    // 缓存上限，按每像素4字节估算
+    private static final long MAX_BYTES = 128L * 1024 * 1024;
+
+    private static final ByteBoundedLruCache<TileKey, Image> cache =
+            new ByteBoundedLruCache<>(MAX_BYTES, ImageTileCache::sizeOf);
+
+    private record TileKey(String path, long lastModified, int level, int column, int row) {
+        static TileKey of(File file, int level, int column, int row) {
+            return new TileKey(file.getAbsolutePath(), file.lastModified(), level, column, row);
+        }
+    }
+
+    private ImageTileCache() {
+    }
+
+    /**
+     * 获取已缓存的块
+     * @param file 图片文件
+     * @param level 缩放级别，第n级为原图的1/2^n
+     * @param column 块所在列
+     * @param row 块所在行
+     * @return 缓存的块，不存在时返回null
+     */
+    public static Image get(File file, int level, int column, int row) {
+        return cache.get(TileKey.of(file, level, column, row));
+    }
+
+    /**
+     * 缓存块
+     */
+    public static void put(File file, int level, int column, int row, Image image) {
+        cache.put(TileKey.of(file, level, column, row), image);
+    }
+
+    private static long sizeOf(Image image) {
+        return (long) image.getWidth() * (long) image.getHeight() * 4;
+    }
+}
@@ -0,0 +1,54 @@
+package org.myself.iamreviewing.component.previewer;
+
+import javafx.collections.ObservableListBase;
+
+import java.util.AbstractList;
+
+/**
+ * 行号列表，第i项就是i，只记录行数，不为每行创建对象
+ * 作为按行虚拟化的ListView的数据源，行数可达千万级
+ */
+final class LineNumberList extends ObservableListBase<Integer> {
+
+    private int size;
+
+    @Override
+    public Integer get(int index) {
+        return index;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 改变行数，增加时通知追加，减少时通知从末尾移除
+     */
+    void setSize(int newSize) {
+        if (newSize == size) {
+            return;
+        }
+        beginChange();
+        if (newSize > size) {
+            nextAdd(size, newSize);
+        } else {
+            // 被移除的行号按需生成，不复制
+            int removedFrom = newSize;
+            int removedCount = size - newSize;
+            nextRemove(newSize, new AbstractList<Integer>() {
+                @Override
+                public Integer get(int index) {
+                    return removedFrom + index;
+                }
+
+                @Override
+                public int size() {
+                    return removedCount;
+                }
+            });
+        }
+        size = newSize;
+        endChange();
+    }
+}
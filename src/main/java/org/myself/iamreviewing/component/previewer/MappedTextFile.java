@@ -0,0 +1,339 @@
+package org.myself.iamreviewing.component.previewer;
+
+import javafx.application.Platform;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntConsumer;
+
+/**
+ * 内存映射的文本文件
+ * 文件按段映射到内存而不读入堆，后台扫描换行符建立行偏移索引，每LINES_PER_CHECKPOINT行记录一个偏移，
+ * 索引大小只有行数的几十分之一；取某一行时从最近的记录点向后查找并只解码这一行，可以浏览远大于堆内存的文件。
+ * 映射在通道关闭后依然有效，随对象回收释放，无需显式关闭；不再使用时调用release停止建立索引
+ */
+public class MappedTextFile {
+
+    // 每段映射的大小，单个MappedByteBuffer不能超过2GB
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+    // 每隔多少行记录一个行首偏移
+    private static final int LINES_PER_CHECKPOINT = 32;
+    // 单行最多解码的字节数，压缩过的超长行只显示开头
+    private static final int MAX_LINE_BYTES = 16 * 1024;
+    // 索引到这么多行时立即通知，首屏内容不必等待整个文件索引完成
+    private static final int FIRST_SCREEN_LINES = 100;
+    // 之后每隔多少行检查一次是否需要通知进度
+    private static final int PROGRESS_CHECK_LINES = 4096;
+    // 两次进度通知的最小间隔，避免界面更新过于频繁
+    private static final long PROGRESS_INTERVAL_MILLIS = 100;
+
+    // 建立索引的线程
+    private static final ExecutorService indexer = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "text-line-indexer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    private final File file;
+    private final long size;
+    private final MappedByteBuffer[] segments;
+
+    private volatile Charset charset = StandardCharsets.UTF_8;
+    // 换行符所在编码单元的字节数和字节序，UTF-16为2，UTF-32为4，其余为1
+    private volatile int unitWidth = 1;
+    private volatile boolean littleEndian;
+    // BOM之后正文的起始偏移
+    private volatile long contentStart;
+
+    // 行首偏移的记录点，checkpoints[i]为第i*LINES_PER_CHECKPOINT行的行首；先写入数组再发布lineCount
+    private volatile long[] checkpoints = new long[0];
+    private volatile int lineCount;
+    private volatile boolean indexComplete;
+    // 每次重建索引加一，旧的索引任务据此退出
+    private volatile int generation;
+    private int references;
+    // 已索引行数变化的监听器，在JavaFX线程中回调
+    private final List<IntConsumer> indexListeners = new CopyOnWriteArrayList<>();
+
+    private MappedTextFile(File file, long size, MappedByteBuffer[] segments) {
+        this.file = file;
+        this.size = size;
+        this.segments = segments;
+    }
+
+    /**
+     * 以只读方式映射文件，不读取内容
+     */
+    public static MappedTextFile open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            int count = (int) ((size + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+            MappedByteBuffer[] segments = new MappedByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long position = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(1L << SEGMENT_SHIFT, size - position));
+            }
+            return new MappedTextFile(file, size, segments);
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * 已建立索引的行数，索引建立期间会不断增长
+     */
+    public int lineCount() {
+        return lineCount;
+    }
+
+    public boolean isIndexComplete() {
+        return indexComplete;
+    }
+
+    /**
+     * 登记一个使用者
+     */
+    public synchronized void retain() {
+        references++;
+    }
+
+    /**
+     * 注销一个使用者，全部注销后停止建立索引
+     */
+    public synchronized void release() {
+        if (references > 0 && --references == 0) {
+            generation++;
+        }
+    }
+
+    /**
+     * 添加已索引行数变化的监听器，在JavaFX线程中回调，索引完成时的最后一次回调中isIndexComplete()为true
+     */
+    public void addIndexListener(IntConsumer listener) {
+        indexListeners.add(listener);
+    }
+
+    public void removeIndexListener(IntConsumer listener) {
+        indexListeners.remove(listener);
+    }
+
+    /**
+     * 按指定编码在后台重新建立行索引，需在JavaFX线程中调用
+     * @param charset 文本编码
+     */
+    public void index(Charset charset) {
+        int current;
+        synchronized (this) {
+            current = ++generation;
+        }
+        this.charset = resolveCharset(charset);
+        checkpoints = new long[0];
+        lineCount = 0;
+        indexComplete = false;
+        indexListeners.forEach(listener -> listener.accept(0));
+        indexer.submit(() -> buildIndex(current));
+    }
+
+    /**
+     * 读取文件开头的字节，用于探测编码
+     */
+    public byte[] head(int maxBytes) {
+        return bytes(0, (int) Math.min(size, maxBytes));
+    }
+
+    /**
+     * 解码一行，不含换行符；超长行只解码开头部分
+     * @param index 行号，从0开始
+     */
+    public String line(int index) {
+        if (index >= lineCount) {
+            return "";
+        }
+        long start = lineStart(index);
+        // 超长行只查找到需要解码的部分为止
+        long end = findNewline(start, Math.min(size, start + MAX_LINE_BYTES + unitWidth));
+        boolean truncated = end - start > MAX_LINE_BYTES;
+        if (truncated) {
+            end = start + MAX_LINE_BYTES - MAX_LINE_BYTES % unitWidth;
+        } else if (end - start >= unitWidth && unitAt(end - unitWidth) == '\r') {
+            // 去掉行尾的\r
+            end -= unitWidth;
+        }
+        String text = new String(bytes(start, (int) (end - start)), charset);
+        return truncated ? text + " …" : text;
+    }
+
+    // 在索引线程中扫描换行符
+    private void buildIndex(int current) {
+        long[] points = new long[1024];
+        int lines = 0;
+        long lineStart = contentStart;
+        long lastNotified = System.currentTimeMillis();
+        while (lineStart < size) {
+            if (generation != current) {
+                return;
+            }
+            if (lines % LINES_PER_CHECKPOINT == 0) {
+                int slot = lines / LINES_PER_CHECKPOINT;
+                if (slot == points.length) {
+                    points = Arrays.copyOf(points, points.length * 2);
+                }
+                points[slot] = lineStart;
+            }
+            lines++;
+            lineStart = findNewline(lineStart, size) + unitWidth;
+            if (lines == FIRST_SCREEN_LINES || (lines % PROGRESS_CHECK_LINES == 0
+                    && System.currentTimeMillis() - lastNotified > PROGRESS_INTERVAL_MILLIS)) {
+                publish(current, points, lines, false);
+                lastNotified = System.currentTimeMillis();
+            }
+        }
+        publish(current, points, lines, true);
+    }
+
+    private void publish(int current, long[] points, int lines, boolean complete) {
+        if (generation != current) {
+            return;
+        }
+        checkpoints = points;
+        lineCount = lines;
+        indexComplete = complete;
+        Platform.runLater(() -> {
+            if (generation == current) {
+                indexListeners.forEach(listener -> listener.accept(lines));
+            }
+        });
+    }
+
+    private long lineStart(int index) {
+        long position = checkpoints[index / LINES_PER_CHECKPOINT];
+        for (int i = 0; i < index % LINES_PER_CHECKPOINT; i++) {
+            position = findNewline(position, size) + unitWidth;
+        }
+        return position;
+    }
+
+    // 在[position, limit)中查找下一个换行符所在的偏移，没有时返回limit
+    private long findNewline(long position, long limit) {
+        if (unitWidth == 1) {
+            // 单字节编码直接在映射段中扫描
+            while (position < limit) {
+                MappedByteBuffer segment = segments[(int) (position >>> SEGMENT_SHIFT)];
+                int offset = (int) (position & SEGMENT_MASK);
+                int end = (int) Math.min(segment.limit(), offset + (limit - position));
+                for (int i = offset; i < end; i++) {
+                    if (segment.get(i) == '\n') {
+                        return position + (i - offset);
+                    }
+                }
+                position += end - offset;
+            }
+            return limit;
+        }
+        while (position + unitWidth <= limit) {
+            if (unitAt(position) == '\n') {
+                return position;
+            }
+            position += unitWidth;
+        }
+        return limit;
+    }
+
+    // 读取position处的一个编码单元
+    private int unitAt(long position) {
+        if (unitWidth == 1) {
+            return byteAt(position) & 0xFF;
+        }
+        int value = 0;
+        for (int i = 0; i < unitWidth; i++) {
+            int b = byteAt(position + (littleEndian ? unitWidth - 1 - i : i)) & 0xFF;
+            value = (value << 8) | b;
+        }
+        return value;
+    }
+
+    private byte byteAt(long position) {
+        return segments[(int) (position >>> SEGMENT_SHIFT)].get((int) (position & SEGMENT_MASK));
+    }
+
+    private byte[] bytes(long start, int length) {
+        byte[] result = new byte[length];
+        int copied = 0;
+        while (copied < length) {
+            long position = start + copied;
+            MappedByteBuffer segment = segments[(int) (position >>> SEGMENT_SHIFT)];
+            int offset = (int) (position & SEGMENT_MASK);
+            int count = Math.min(length - copied, segment.limit() - offset);
+            segment.get(offset, result, copied, count);
+            copied += count;
+        }
+        return result;
+    }
+
+    /**
+     * 确定换行符的编码单元并跳过BOM；带BOM的UTF-16/UTF-32按BOM确定字节序，
+     * 逐行解码时不会再看到BOM，因此换成明确字节序的编码
+     */
+    private Charset resolveCharset(Charset requested) {
+        String name = requested.name().toUpperCase();
+        int b0 = size > 0 ? byteAt(0) & 0xFF : -1;
+        int b1 = size > 1 ? byteAt(1) & 0xFF : -1;
+        int b2 = size > 2 ? byteAt(2) & 0xFF : -1;
+        int b3 = size > 3 ? byteAt(3) & 0xFF : -1;
+
+        unitWidth = 1;
+        littleEndian = false;
+        contentStart = 0;
+        if (name.startsWith("UTF-32")) {
+            unitWidth = 4;
+            littleEndian = name.endsWith("LE");
+            if (b0 == 0 && b1 == 0 && b2 == 0xFE && b3 == 0xFF) {
+                contentStart = 4;
+                littleEndian = false;
+            } else if (b0 == 0xFF && b1 == 0xFE && b2 == 0 && b3 == 0) {
+                contentStart = 4;
+                littleEndian = true;
+            }
+            return Charset.forName(littleEndian ? "UTF-32LE" : "UTF-32BE");
+        }
+        if (name.startsWith("UTF-16")) {
+            unitWidth = 2;
+            littleEndian = name.endsWith("LE");
+            if (b0 == 0xFE && b1 == 0xFF) {
+                contentStart = 2;
+                littleEndian = false;
+            } else if (b0 == 0xFF && b1 == 0xFE) {
+                contentStart = 2;
+                littleEndian = true;
+            }
+            return littleEndian ? StandardCharsets.UTF_16LE : StandardCharsets.UTF_16BE;
+        }
+        if (name.equals("UTF-8") && b0 == 0xEF && b1 == 0xBB && b2 == 0xBF) {
+            contentStart = 3;
+        }
+        return requested;
+    }
+}
@@ -0,0 +1,27 @@
+package org.myself.iamreviewing.component.previewer;
+
+import javafx.scene.media.Media;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 音视频文件及其Media对象，供音频和视频预览器共用
+ */
+public record MediaFile(File file, Media media) {
+
+    /**
+     * 在后台创建Media，格式不支持时异常完成；Media不持有解码器，播放器在构建界面时才创建
+     */
+    public static CompletableFuture<MediaFile> load(File file, PreviewScheduler.Token token) {
+        CompletableFuture<MediaFile> result = new CompletableFuture<>();
+        PreviewScheduler.submit(token, () -> {
+            try {
+                result.complete(new MediaFile(file, new Media(file.toURI().toString())));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+}
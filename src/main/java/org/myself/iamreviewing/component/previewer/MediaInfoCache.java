@@ -0,0 +1,69 @@
+package org.myself.iamreviewing.component.previewer;
+
+import javafx.scene.image.Image;
+import javafx.util.Duration;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 音视频的封面帧和时长缓存，用于不创建播放器就显示媒体的占位界面
+ * 封面帧保存在ThumbnailStore中，重启后仍可使用；时长只在进程内缓存。
+ * 两者都在第一次播放时才能得到，从未播放过的媒体没有缓存
+ */
+public final class MediaInfoCache {
+
+    private static final String POSTER_VARIANT = "poster";
+
+    // 文件版本 -> 时长
+    private static final Map<FileVersion, Duration> durations = new ConcurrentHashMap<>();
+
+    private record FileVersion(String path, long lastModified, long size) {
+        static FileVersion of(File file) {
+            return new FileVersion(file.getAbsolutePath(), file.lastModified(), file.length());
+        }
+    }
+
+    /**
+     * 已缓存的媒体信息
+     * @param poster 封面帧，没有时为null
+     * @param duration 时长，未知时为null
+     */
+    public record MediaInfo(Image poster, Duration duration) {
+    }
+
+    private MediaInfoCache() {
+    }
+
+    /**
+     * 在后台读取媒体的封面帧和时长
+     * @param file 媒体文件
+     * @param withPoster 是否读取封面帧，音频传false
+     */
+    public static CompletableFuture<MediaInfo> load(File file, boolean withPoster, PreviewScheduler.Token token) {
+        CompletableFuture<MediaInfo> result = new CompletableFuture<>();
+        PreviewScheduler.submit(token, () -> {
+            Image poster = withPoster ? ThumbnailStore.load(file, POSTER_VARIANT) : null;
+            result.complete(new MediaInfo(poster, durations.get(FileVersion.of(file))));
+        });
+        return result;
+    }
+
+    /**
+     * 缓存媒体时长
+     */
+    public static void putDuration(File file, Duration duration) {
+        if (duration != null && !duration.isUnknown() && !duration.isIndefinite()) {
+            durations.put(FileVersion.of(file), duration);
+        }
+    }
+
+    /**
+     * 在后台把封面帧写入磁盘缓存
+     */
+    public static void savePoster(File file, Image poster) {
+        PreviewScheduler.executor().execute(() -> ThumbnailStore.save(file, POSTER_VARIANT, poster));
+    }
+}
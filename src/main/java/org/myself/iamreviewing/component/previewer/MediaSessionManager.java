@@ -0,0 +1,132 @@
+package org.myself.iamreviewing.component.previewer;
+
+import javafx.application.Platform;
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 进程内所有媒体播放器的统一管理
+ * 每个MediaPlayer持有原生解码线程和缓冲区，不调用dispose()不会释放。所有播放器都通过这里创建，
+ * 预览被替换或窗口关闭时释放；同时存活的播放器数量有上限，超出时释放最久未使用且未在播放的播放器，
+ * 并通知其界面。所有方法应在JavaFX线程中调用
+ */
+public final class MediaSessionManager {
+
+    // 同时存活的播放器上限
+    private static final int MAX_LIVE_PLAYERS = 6;
+
+    // accessOrder为true，遍历顺序即从最久未使用到最近使用；值为被淘汰时的回调
+    private static final Map<MediaPlayer, Runnable> players = new LinkedHashMap<>(16, 0.75f, true);
+
+    private MediaSessionManager() {
+    }
+
+    /**
+     * 创建播放器，由调用方在预览被替换时调用release释放
+     * @param media 媒体
+     * @return 新的播放器
+     */
+    public static MediaPlayer open(Media media) {
+        MediaPlayer player = new MediaPlayer(media);
+        // 尚未设置淘汰回调时记为空动作，值始终非null
+        players.put(player, () -> {
+        });
+        // 开始播放时视为最近使用
+        player.statusProperty().addListener((obs, oldStatus, newStatus) -> {
+            if (newStatus == MediaPlayer.Status.PLAYING) {
+                players.get(player);
+            }
+        });
+        evictOverflow(player);
+        return player;
+    }
+
+    /**
+     * 创建播放器，预览取消时自动释放
+     * @param token 播放器所属预览的取消标记
+     */
+    public static MediaPlayer open(Media media, PreviewScheduler.Token token) {
+        MediaPlayer player = open(media);
+        token.onCancel(() -> release(player));
+        return player;
+    }
+
+    /**
+     * 设置播放器因数量超出上限被释放时的回调，用于禁用界面上的播放控件
+     */
+    public static void setOnEvicted(MediaPlayer player, Runnable onEvicted) {
+        players.replace(player, onEvicted != null ? onEvicted : () -> {
+        });
+    }
+
+    /**
+     * 停止并释放播放器，重复调用无效果
+     */
+    public static void release(MediaPlayer player) {
+        if (player == null) {
+            return;
+        }
+        runOnFxThread(() -> {
+            if (players.containsKey(player)) {
+                players.remove(player);
+                player.dispose();
+            }
+        });
+    }
+
+    /**
+     * 释放所有播放器，应用退出时调用
+     */
+    public static void releaseAll() {
+        runOnFxThread(() -> {
+            List<MediaPlayer> all = new ArrayList<>(players.keySet());
+            players.clear();
+            all.forEach(MediaPlayer::dispose);
+        });
+    }
+
+    /**
+     * 当前存活的播放器数量
+     */
+    public static int liveCount() {
+        return players.size();
+    }
+
+    // 超出上限时优先淘汰未在播放的播放器，都在播放时淘汰最久未使用的，刚创建的播放器不淘汰
+    private static void evictOverflow(MediaPlayer created) {
+        while (players.size() > MAX_LIVE_PLAYERS) {
+            MediaPlayer victim = null;
+            for (MediaPlayer player : players.keySet()) {
+                if (player != created && player.getStatus() != MediaPlayer.Status.PLAYING) {
+                    victim = player;
+                    break;
+                }
+            }
+            if (victim == null) {
+                Iterator<MediaPlayer> iterator = players.keySet().iterator();
+                victim = iterator.next();
+                if (victim == created) {
+                    victim = iterator.next();
+                }
+            }
+            Runnable onEvicted = players.remove(victim);
+            System.out.println("媒体播放器数量超出上限，已释放: " + victim.getMedia().getSource());
+            victim.dispose();
+            onEvicted.run();
+        }
+    }
+
+    private static void runOnFxThread(Runnable action) {
+        if (Platform.isFxApplicationThread()) {
+            action.run();
+        } else {
+            Platform.runLater(action);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package org.myself.iamreviewing.component.previewer;
+
+import javafx.scene.image.Image;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.PDFRenderer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已打开PDF文档的进程级共享池
+ * 以"文件路径+修改时间+槽位"为键对PDDocument引用计数，同一个槽位的文件只解析一次；
+ * PDFRenderer不是线程安全的，需要并行渲染同一文件时由各渲染线程使用不同槽位，各自持有独立的文档；
+ * 无人使用的文档空闲IDLE_TIMEOUT_MILLIS后关闭，打开的文档数超过MAX_OPEN时优先关闭最久未使用的空闲文档
+ */
+public final class PdfDocumentPool {
+
+    // 最多同时保持打开的空闲文档数，正在使用的文档不受此限制
+    private static final int MAX_OPEN = 16;
+    // 空闲文档保留时间
+    private static final long IDLE_TIMEOUT_MILLIS = 60_000;
+
+    // accessOrder为true，遍历顺序即从最久未使用到最近使用
+    private static final Map<DocumentKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private static final ScheduledExecutorService cleaner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "pdf-document-pool-cleaner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        cleaner.scheduleWithFixedDelay(PdfDocumentPool::closeIdle, 15, 15, TimeUnit.SECONDS);
+    }
+
+    private record DocumentKey(String path, long lastModified, int slot) {
+    }
+
+    /**
+     * 池中的一个文档，document和renderer只在持有该对象锁时访问
+     */
+    private static final class Entry {
+        private final File file;
+        private PDDocument document;
+        private PDFRenderer renderer;
+        private double[] aspectRatios;
+        // 以下字段只在持有池锁时访问
+        private int refCount;
+        private long lastReleased;
+
+        Entry(File file) {
+            this.file = file;
+        }
+
+        synchronized void open() throws IOException {
+            if (document == null) {
+                document = PDDocument.load(file);
+                renderer = new PDFRenderer(document);
+            }
+        }
+
+        synchronized void close() {
+            if (document != null) {
+                try {
+                    document.close();
+                } catch (IOException e) {
+                    // 忽略关闭异常
+                }
+                document = null;
+                renderer = null;
+            }
+        }
+    }
+
+    /**
+     * 借出的文档句柄，用完必须close归还，归还后不能再使用
+     */
+    public static final class Handle implements AutoCloseable {
+        private final Entry entry;
+        private boolean closed;
+
+        private Handle(Entry entry) {
+            this.entry = entry;
+        }
+
+        /**
+         * 总页数
+         */
+        public int pageCount() {
+            synchronized (entry) {
+                return entry.document.getNumberOfPages();
+            }
+        }
+
+        /**
+         * 每页的高宽比（已考虑页面旋转），第一次调用时读取
+         */
+        public double[] pageAspectRatios() {
+            synchronized (entry) {
+                if (entry.aspectRatios == null) {
+                    double[] ratios = new double[entry.document.getNumberOfPages()];
+                    for (int i = 0; i < ratios.length; i++) {
+                        PDPage page = entry.document.getPage(i);
+                        PDRectangle box = page.getCropBox();
+                        boolean rotated = page.getRotation() % 180 != 0;
+                        ratios[i] = rotated ? box.getWidth() / box.getHeight() : box.getHeight() / box.getWidth();
+                    }
+                    entry.aspectRatios = ratios;
+                }
+                return entry.aspectRatios;
+            }
+        }
+
+        /**
+         * 渲染页面，优先使用PdfPageCache中的结果
+         * PDFRenderer不是线程安全的，同一文档的渲染会串行执行
+         */
+        public Image render(int page, float scale) throws IOException {
+            Image cached = PdfPageCache.get(entry.file, page, scale);
+            if (cached != null) {
+                return cached;
+            }
+            synchronized (entry) {
+                return PdfPageCache.render(entry.renderer, entry.file, page, scale);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(entry);
+            }
+        }
+    }
+
+    private PdfDocumentPool() {
+    }
+
+    /**
+     * 借出文件对应的文档，文件被修改后会打开新的文档
+     * 首次打开在调用线程中进行，不要在JavaFX线程中调用
+     */
+    public static Handle acquire(File file) throws IOException {
+        return acquire(file, 0);
+    }
+
+    /**
+     * 借出文件在指定槽位上的文档，不同槽位的文档相互独立，可以在不同线程中同时渲染
+     */
+    public static Handle acquire(File file, int slot) throws IOException {
+        File absoluteFile = file.getAbsoluteFile();
+        DocumentKey key = new DocumentKey(absoluteFile.getPath(), absoluteFile.lastModified(), slot);
+        Entry entry;
+        synchronized (PdfDocumentPool.class) {
+            entry = entries.computeIfAbsent(key, k -> new Entry(absoluteFile));
+            entry.refCount++;
+        }
+        try {
+            entry.open();
+        } catch (IOException | RuntimeException e) {
+            synchronized (PdfDocumentPool.class) {
+                entry.refCount--;
+                if (entry.refCount == 0) {
+                    entries.remove(key, entry);
+                }
+            }
+            throw e;
+        }
+        trimToSize();
+        return new Handle(entry);
+    }
+
+    private static void release(Entry entry) {
+        synchronized (PdfDocumentPool.class) {
+            entry.refCount--;
+            entry.lastReleased = System.currentTimeMillis();
+        }
+        trimToSize();
+    }
+
+    // 空闲文档超过上限时关闭最久未使用的
+    private static void trimToSize() {
+        List<Entry> toClose = new ArrayList<>();
+        synchronized (PdfDocumentPool.class) {
+            int idle = (int) entries.values().stream().filter(entry -> entry.refCount == 0).count();
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (idle > MAX_OPEN && iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (entry.refCount == 0) {
+                    iterator.remove();
+                    toClose.add(entry);
+                    idle--;
+                }
+            }
+        }
+        toClose.forEach(Entry::close);
+    }
+
+    // 关闭空闲超时的文档
+    private static void closeIdle() {
+        List<Entry> toClose = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        synchronized (PdfDocumentPool.class) {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (entry.refCount == 0 && now - entry.lastReleased > IDLE_TIMEOUT_MILLIS) {
+                    iterator.remove();
+                    toClose.add(entry);
+                }
+            }
+        }
+        toClose.forEach(Entry::close);
+    }
+}
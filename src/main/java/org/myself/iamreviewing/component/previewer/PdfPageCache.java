@@ -0,0 +1,69 @@
+package org.myself.iamreviewing.component.previewer;
+
+import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.image.Image;
+import org.apache.pdfbox.rendering.PDFRenderer;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * PDF页面渲染结果的进程级缓存
+ * 以"文件路径+修改时间+页码+渲染倍率"为键，文件被修改后旧页面自然失效；
+ * 按解码后的像素字节数限制总大小，超出时淘汰最久未使用的页面。所有方法线程安全
+ */
+public final class PdfPageCache {
+
+    // 缓存上限，按每像素4字节估算
+    private static final long MAX_BYTES = 256L * 1024 * 1024;
+
+    private static final ByteBoundedLruCache<PageKey, Image> cache =
+            new ByteBoundedLruCache<>(MAX_BYTES, PdfPageCache::sizeOf);
+
+    private record PageKey(String path, long lastModified, int page, float scale) {
+        static PageKey of(File file, int page, float scale) {
+            return new PageKey(file.getAbsolutePath(), file.lastModified(), page, scale);
+        }
+    }
+
+    private PdfPageCache() {
+    }
+
+    /**
+     * 获取已缓存的页面
+     * @param file PDF文件
+     * @param page 页码，从0开始
+     * @param scale 渲染倍率
+     * @return 缓存的页面，不存在时返回null
+     */
+    public static Image get(File file, int page, float scale) {
+        return cache.get(PageKey.of(file, page, scale));
+    }
+
+    /**
+     * 缓存页面，单页超过缓存上限时不缓存
+     */
+    public static void put(File file, int page, float scale, Image image) {
+        cache.put(PageKey.of(file, page, scale), image);
+    }
+
+    /**
+     * 优先从缓存获取页面，未命中时用renderer渲染并放入缓存
+     * 渲染在调用线程中进行，不要在JavaFX线程中调用
+     */
+    public static Image render(PDFRenderer renderer, File file, int page, float scale) throws IOException {
+        Image cached = get(file, page, scale);
+        if (cached != null) {
+            return cached;
+        }
+        BufferedImage bufferedImage = renderer.renderImage(page, scale);
+        Image image = SwingFXUtils.toFXImage(bufferedImage, null);
+        put(file, page, scale, image);
+        return image;
+    }
+
+    private static long sizeOf(Image image) {
+        return (long) image.getWidth() * (long) image.getHeight() * 4;
+    }
+}
@@ -0,0 +1,226 @@
+package org.myself.iamreviewing.component.previewer;
+
+import javafx.application.Platform;
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+/**
+ * 虚拟化的PDF页面查看器
+ * 基于ListView只为可见区域创建单元格并循环复用，只渲染可见页及其前后PREFETCH_PAGES页，可见页优先；
+ * 单元格滚出视野后不再持有页面图像，渲染结果只保留在有上限的PdfPageCache中，内存占用与总页数无关
+ */
+public class PdfPageViewer extends ListView<Integer> {
+
+    // 可见页前后各预渲染的页数
+    private static final int PREFETCH_PAGES = 2;
+    // 读取到页面尺寸之前按A4比例占位
+    private static final double DEFAULT_ASPECT_RATIO = 297.0 / 210.0;
+
+    private final File file;
+    private final float scale;
+    private final double fitWidth;
+    private String pageStyle = "";
+
+    // 每页的高宽比，打开文档后在后台读取
+    private volatile double[] aspectRatios;
+    // 页码 -> 正在显示该页的单元格数量，据此取消已经滚出视野的页面的渲染
+    private final Map<Integer, Integer> displayedPages = new HashMap<>();
+    // 已提交但尚未完成的渲染请求，避免重复提交
+    private final Map<Integer, CompletableFuture<Image>> pendingRenders = new HashMap<>();
+    // 已创建的单元格，数量只与可见行数有关
+    private final List<PageCell> cells = new ArrayList<>();
+
+    // 在后台打开和归还文档，文档句柄只在这个线程中访问；页面渲染交给PdfRenderEngine并行进行
+    private final ExecutorService documentExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "pdf-page-viewer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private PdfDocumentPool.Handle document;
+
+    /**
+     * @param file PDF文件
+     * @param pageCount 总页数
+     * @param scale 渲染倍率
+     * @param fitWidth 页面显示宽度
+     */
+    public PdfPageViewer(File file, int pageCount, float scale, double fitWidth) {
+        this.file = file;
+        this.scale = scale;
+        this.fitWidth = fitWidth;
+
+        getItems().setAll(IntStream.range(0, pageCount).boxed().toList());
+        setCellFactory(list -> new PageCell());
+        setStyle("-fx-background-color: #f0f0f0;");
+        documentExecutor.submit(this::openDocument);
+    }
+
+    /**
+     * 设置每页容器的样式
+     */
+    public void setPageStyle(String pageStyle) {
+        this.pageStyle = pageStyle;
+        cells.forEach(cell -> cell.container.setStyle(pageStyle));
+    }
+
+    /**
+     * 关闭文档并停止渲染，所在窗口关闭时调用
+     */
+    public void dispose() {
+        pendingRenders.values().forEach(future -> future.cancel(false));
+        pendingRenders.clear();
+        documentExecutor.submit(this::closeDocument);
+        documentExecutor.shutdown();
+    }
+
+    // 在渲染线程中从共享池借出文档并读取每页尺寸
+    private void openDocument() {
+        try {
+            document = PdfDocumentPool.acquire(file);
+            aspectRatios = document.pageAspectRatios();
+            Platform.runLater(this::refresh);
+        } catch (IOException e) {
+            System.err.println("打开PDF文件失败: " + e.getMessage());
+            Platform.runLater(() -> {
+                Label errorLabel = new Label("加载PDF文件失败: " + e.getMessage());
+                errorLabel.setStyle("-fx-text-fill: red; -fx-font-weight: bold;");
+                setPlaceholder(errorLabel);
+                getItems().clear();
+            });
+        }
+    }
+
+    private void closeDocument() {
+        if (document != null) {
+            // 归还文档，由共享池决定何时真正关闭
+            document.close();
+            document = null;
+        }
+    }
+
+    // 提交page附近页面的渲染，已缓存或已在队列中的页面跳过
+    private void requestPages(int page) {
+        for (int p = page - PREFETCH_PAGES; p <= page + PREFETCH_PAGES; p++) {
+            if (p < 0 || p >= getItems().size() || PdfPageCache.get(file, p, scale) != null) {
+                continue;
+            }
+            CompletableFuture<Image> pending = pendingRenders.get(p);
+            // 预取中的页面变为可见时重新以可见优先级提交，引擎会提升原任务的优先级
+            if (pending != null && p != page) {
+                continue;
+            }
+            int pageNum = p;
+            PdfRenderEngine.Priority priority = p == page ? PdfRenderEngine.Priority.VISIBLE : PdfRenderEngine.Priority.PREFETCH;
+            CompletableFuture<Image> future = PdfRenderEngine.render(file, pageNum, scale, priority);
+            pendingRenders.put(pageNum, future);
+            if (pending != null) {
+                pending.cancel(false);
+            }
+            future.whenComplete((image, error) -> Platform.runLater(() -> {
+                pendingRenders.remove(pageNum, future);
+                if (error == null) {
+                    cells.stream()
+                            .filter(cell -> Objects.equals(cell.shownPage, pageNum))
+                            .forEach(cell -> cell.showImage(image));
+                } else if (!future.isCancelled()) {
+                    System.err.println("渲染PDF第 " + (pageNum + 1) + " 页失败: " + error.getMessage());
+                }
+            }));
+        }
+    }
+
+    // 取消已经滚出视野的页面的渲染请求
+    private void cancelStaleRenders() {
+        pendingRenders.entrySet().removeIf(entry -> {
+            if (isNearDisplayed(entry.getKey())) {
+                return false;
+            }
+            entry.getValue().cancel(false);
+            return true;
+        });
+    }
+
+    private boolean isNearDisplayed(int page) {
+        for (int p = page - PREFETCH_PAGES; p <= page + PREFETCH_PAGES; p++) {
+            if (displayedPages.containsKey(p)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private double aspectRatioOf(int page) {
+        double[] ratios = aspectRatios;
+        return ratios != null && page < ratios.length ? ratios[page] : DEFAULT_ASPECT_RATIO;
+    }
+
+    /**
+     * 单页单元格，页面未渲染完成时显示同尺寸的占位
+     */
+    private class PageCell extends ListCell<Integer> {
+        private final Label pageLabel = new Label();
+        private final ImageView imageView = new ImageView();
+        private final Label loadingLabel = new Label("正在渲染...");
+        private final StackPane pageArea = new StackPane(loadingLabel, imageView);
+        private final VBox container = new VBox(5, pageLabel, pageArea);
+        private Integer shownPage;
+
+        PageCell() {
+            pageLabel.setStyle("-fx-font-weight: bold;");
+            loadingLabel.setStyle("-fx-text-fill: #999;");
+            imageView.setPreserveRatio(true);
+            imageView.setFitWidth(fitWidth);
+            container.setAlignment(Pos.CENTER);
+            container.setStyle(pageStyle);
+            cells.add(this);
+        }
+
+        @Override
+        protected void updateItem(Integer page, boolean empty) {
+            super.updateItem(page, empty);
+            if (shownPage != null) {
+                displayedPages.computeIfPresent(shownPage, (p, count) -> count > 1 ? count - 1 : null);
+            }
+            if (empty || page == null) {
+                shownPage = null;
+                imageView.setImage(null);
+                setGraphic(null);
+                cancelStaleRenders();
+                return;
+            }
+            shownPage = page;
+            displayedPages.merge(page, 1, Integer::sum);
+            pageLabel.setText("第 " + (page + 1) + " 页");
+            double height = fitWidth * aspectRatioOf(page);
+            pageArea.setMinSize(fitWidth, height);
+            pageArea.setPrefSize(fitWidth, height);
+            showImage(PdfPageCache.get(file, page, scale));
+            setGraphic(container);
+            requestPages(page);
+            cancelStaleRenders();
+        }
+
+        void showImage(Image image) {
+            imageView.setImage(image);
+            loadingLabel.setVisible(image == null);
+        }
+    }
+}
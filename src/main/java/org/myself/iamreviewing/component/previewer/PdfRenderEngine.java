@@ -0,0 +1,201 @@
+package org.myself.iamreviewing.component.previewer;
+
+import javafx.scene.image.Image;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 多线程PDF页面渲染引擎
+ * 工作线程数随CPU核数扩展，同一文件最多打开DOCUMENT_SLOTS份文档，工作线程按编号分到其中一个槽位，
+ * 避免一个大文件被解析(核数-1)次并占满PdfDocumentPool；
+ * 任务按优先级出队，可见页先于预取页渲染，队列有上限，同一页面的重复请求合并为一次渲染；
+ * 需要持久化的页面会先查找ThumbnailStore，渲染后写入磁盘，重启后无需重新渲染
+ */
+public final class PdfRenderEngine {
+
+    /**
+     * 渲染优先级，数值越小越先渲染
+     */
+    public enum Priority {
+        // 当前可见的页面
+        VISIBLE,
+        // 可见页附近预取的页面
+        PREFETCH
+    }
+
+    // 留一个核给JavaFX线程
+    private static final int WORKER_COUNT = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    // 每个文件最多同时打开的文档数，分到同一槽位的线程串行渲染
+    private static final int DOCUMENT_SLOTS = Math.min(WORKER_COUNT, 3);
+    // 等待渲染的任务上限
+    private static final int QUEUE_CAPACITY = 256;
+
+    private static final PriorityBlockingQueue<RenderTask> queue = new PriorityBlockingQueue<>();
+    // 排队或正在渲染的任务，用于合并重复请求，只在持有类锁时访问
+    private static final Map<TaskKey, RenderTask> inFlight = new HashMap<>();
+    private static final AtomicLong sequence = new AtomicLong();
+
+    static {
+        for (int i = 0; i < WORKER_COUNT; i++) {
+            int slot = i % DOCUMENT_SLOTS;
+            Thread worker = new Thread(() -> workLoop(slot), "pdf-render-" + i);
+            worker.setDaemon(true);
+            worker.setPriority(Thread.NORM_PRIORITY - 1);
+            worker.start();
+        }
+    }
+
+    private record TaskKey(String path, long lastModified, int page, float scale) {
+    }
+
+    private static final class RenderTask implements Comparable<RenderTask> {
+        private final TaskKey key;
+        private final File file;
+        private final CompletableFuture<Image> future = new CompletableFuture<>();
+        private Priority priority;
+        private long order;
+        // 是否读写磁盘缩略图
+        private boolean persistent;
+        // 尚未取消的请求方数量，全部取消后任务本身才取消
+        private int waiters;
+
+        RenderTask(TaskKey key, File file, Priority priority) {
+            this.key = key;
+            this.file = file;
+            this.priority = priority;
+            this.order = sequence.incrementAndGet();
+        }
+
+        @Override
+        public int compareTo(RenderTask other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(order, other.order);
+        }
+    }
+
+    private PdfRenderEngine() {
+    }
+
+    /**
+     * 提交页面渲染，已缓存的页面直接返回
+     * 取消返回的future只影响本次请求，其他请求方仍会拿到结果
+     * @param file PDF文件
+     * @param page 页码，从0开始
+     * @param scale 渲染倍率
+     * @param priority 优先级
+     * @return 渲染结果，队列已满时返回失败的future
+     */
+    public static CompletableFuture<Image> render(File file, int page, float scale, Priority priority) {
+        return render(file, page, scale, priority, false);
+    }
+
+    /**
+     * 提交页面渲染
+     * @param persistent 为true时优先读取磁盘缩略图，渲染结果也写入磁盘，适合预览面板中反复查看的首屏页面
+     */
+    public static CompletableFuture<Image> render(File file, int page, float scale, Priority priority,
+                                                  boolean persistent) {
+        Image cached = PdfPageCache.get(file, page, scale);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        File absoluteFile = file.getAbsoluteFile();
+        TaskKey key = new TaskKey(absoluteFile.getPath(), absoluteFile.lastModified(), page, scale);
+        RenderTask task;
+        synchronized (PdfRenderEngine.class) {
+            task = inFlight.get(key);
+            if (task == null) {
+                if (queue.size() >= QUEUE_CAPACITY) {
+                    return CompletableFuture.failedFuture(new RejectedExecutionException("PDF渲染队列已满"));
+                }
+                task = new RenderTask(key, absoluteFile, priority);
+                inFlight.put(key, task);
+                queue.add(task);
+            } else if (priority.compareTo(task.priority) < 0 && queue.remove(task)) {
+                // 已在排队的任务提升优先级，重新入队以调整顺序
+                task.priority = priority;
+                task.order = sequence.incrementAndGet();
+                queue.add(task);
+            }
+            task.persistent |= persistent;
+            task.waiters++;
+        }
+
+        RenderTask sharedTask = task;
+        CompletableFuture<Image> result = new CompletableFuture<>();
+        sharedTask.future.whenComplete((image, error) -> {
+            if (error == null) {
+                result.complete(image);
+            } else {
+                result.completeExceptionally(error);
+            }
+        });
+        result.whenComplete((image, error) -> {
+            if (result.isCancelled()) {
+                release(sharedTask);
+            }
+        });
+        return result;
+    }
+
+    // 请求方取消后，如果没有其他请求方，撤销排队中的任务
+    private static void release(RenderTask task) {
+        synchronized (PdfRenderEngine.class) {
+            task.waiters--;
+            if (task.waiters > 0 || !queue.remove(task)) {
+                return;
+            }
+            inFlight.remove(task.key, task);
+        }
+        task.future.cancel(false);
+    }
+
+    private static Image renderTask(RenderTask task, int slot) throws IOException {
+        int page = task.key.page();
+        float scale = task.key.scale();
+        String variant = "page" + page + "@" + scale;
+        if (task.persistent) {
+            Image stored = ThumbnailStore.load(task.file, variant);
+            if (stored != null) {
+                PdfPageCache.put(task.file, page, scale, stored);
+                return stored;
+            }
+        }
+        Image image;
+        try (PdfDocumentPool.Handle document = PdfDocumentPool.acquire(task.file, slot)) {
+            image = document.render(page, scale);
+        }
+        if (task.persistent) {
+            ThumbnailStore.save(task.file, variant, image);
+        }
+        return image;
+    }
+
+    private static void workLoop(int slot) {
+        while (true) {
+            RenderTask task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                task.future.complete(renderTask(task, slot));
+            } catch (Throwable e) {
+                task.future.completeExceptionally(e);
+            } finally {
+                synchronized (PdfRenderEngine.class) {
+                    inFlight.remove(task.key, task);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.myself.iamreviewing.component.previewer;
+
+import javafx.application.Platform;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * 驱动Previewer完成一次预览
+ * 先放入加载提示，加载期间通过Token.reportProgress报告的进度显示在提示的进度条上，load完成后在JavaFX线程中render并替换提示；预览取消后丢弃结果并调用dispose。
+ * 每次预览的加载和构建耗时打印到控制台，便于比较各类附件的开销
+ */
+public final class PreviewDriver {
+
+    private PreviewDriver() {
+    }
+
+    /**
+     * 显示预览
+     * @param previewer 本次预览使用的预览器
+     * @param file 文件对象
+     * @param container 父容器，预览内容将添加到这个容器中
+     * @param token 本次预览的取消标记，取消后调用previewer.dispose()
+     * @param errorView 由错误信息构建错误提示
+     */
+    public static <M> void show(Previewer<M> previewer, File file, VBox container, PreviewScheduler.Token token,
+                                Function<String, Node> errorView) {
+        ProgressIndicator progressIndicator = new ProgressIndicator();
+        progressIndicator.setPrefSize(24, 24);
+        Label loadingLabel = new Label("正在加载 " + file.getName() + " ...");
+        loadingLabel.setStyle("-fx-text-fill: #718096;");
+        HBox placeholder = new HBox(10, progressIndicator, loadingLabel);
+        placeholder.setAlignment(Pos.CENTER_LEFT);
+        placeholder.setStyle("-fx-padding: 10px 0;");
+        container.getChildren().add(placeholder);
+        token.onProgress(progressIndicator::setProgress);
+
+        token.onCancel(() -> runOnFxThread(previewer::dispose));
+
+        long loadStart = System.nanoTime();
+        CompletableFuture<M> loading;
+        try {
+            loading = previewer.load(file, token);
+        } catch (RuntimeException e) {
+            loading = CompletableFuture.failedFuture(e);
+        }
+        loading.whenComplete((model, error) -> PreviewScheduler.runLater(token, () -> {
+            long loadMillis = (System.nanoTime() - loadStart) / 1_000_000;
+            int index = container.getChildren().indexOf(placeholder);
+            if (index < 0) {
+                // 加载提示已被移除，容器已用于其他内容
+                return;
+            }
+            Node content;
+            long renderMillis = 0;
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                System.err.println("加载预览失败: " + file.getName() + " - " + cause.getMessage());
+                content = errorView.apply("加载文件失败: " + cause.getMessage());
+            } else {
+                long renderStart = System.nanoTime();
+                try {
+                    content = previewer.render(model);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                    content = errorView.apply("显示文件失败: " + e.getMessage());
+                }
+                renderMillis = (System.nanoTime() - renderStart) / 1_000_000;
+            }
+            container.getChildren().set(index, content);
+            System.out.println(String.format("预览 %s: 加载 %d ms, 构建界面 %d ms", file.getName(), loadMillis, renderMillis));
+        }));
+    }
+
+    private static void runOnFxThread(Runnable action) {
+        if (Platform.isFxApplicationThread()) {
+            action.run();
+        } else {
+            Platform.runLater(action);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.myself.iamreviewing.component.previewer;
+
+import javafx.scene.image.Image;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * 预览图片的后台加载
+ * 先在后台查找磁盘缩略图；未命中时由JavaFX在后台按缩略图尺寸解码，不会解码出完整分辨率的位图，
+ * 解码完成后再写回缩略图缓存。磁盘读写走PreviewScheduler，预览取消后排队中的任务不再执行，正在进行的解码也会中止
+ */
+public final class PreviewImageLoader {
+
+    private PreviewImageLoader() {
+    }
+
+    /**
+     * 加载图片的预览版本，长边不超过ThumbnailStore.IMAGE_THUMBNAIL_SIZE
+     * @param file 图片文件
+     * @param token 本次预览的取消标记，取消后不再回调
+     * @param onLoaded 加载完成回调，在JavaFX线程中执行；失败时传入的Image的isError()为true
+     */
+    public static void load(File file, PreviewScheduler.Token token, Consumer<Image> onLoaded) {
+        PreviewScheduler.submit(token, () -> {
+            boolean needsThumbnail = ThumbnailStore.needsImageThumbnail(file);
+            Image stored = needsThumbnail ? ThumbnailStore.loadImageThumbnail(file) : null;
+            PreviewScheduler.runLater(token, () -> {
+                if (stored != null) {
+                    onLoaded.accept(stored);
+                } else {
+                    decode(file, needsThumbnail, token, onLoaded);
+                }
+            });
+        });
+    }
+
+    // 利用Image自带的后台加载解码，解码进度报告给token，预览取消时中止解码
+    private static void decode(File file, boolean needsThumbnail, PreviewScheduler.Token token,
+                               Consumer<Image> onLoaded) {
+        String uri = file.toURI().toString();
+        int size = ThumbnailStore.IMAGE_THUMBNAIL_SIZE;
+        Image image = needsThumbnail
+                ? new Image(uri, size, size, true, true, true)
+                : new Image(uri, true);
+        token.onCancel(image::cancel);
+        AtomicBoolean finished = new AtomicBoolean();
+        Runnable finish = () -> {
+            // 出错时进度和错误属性都可能变化，只回调一次
+            if (!finished.compareAndSet(false, true) || token.isCancelled()) {
+                return;
+            }
+            onLoaded.accept(image);
+            if (needsThumbnail && !image.isError()) {
+                PreviewScheduler.submit(token, () -> ThumbnailStore.saveImageThumbnail(file, image));
+            }
+        };
+        if (image.getProgress() >= 1.0 || image.isError()) {
+            finish.run();
+            return;
+        }
+        image.progressProperty().addListener((obs, oldProgress, newProgress) -> {
+            token.reportProgress(newProgress.doubleValue());
+            if (newProgress.doubleValue() >= 1.0) {
+                finish.run();
+            }
+        });
+        image.errorProperty().addListener((obs, wasError, isError) -> {
+            if (isError) {
+                finish.run();
+            }
+        });
+    }
+}
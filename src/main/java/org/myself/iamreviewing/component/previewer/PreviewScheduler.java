@@ -0,0 +1,135 @@
+package org.myself.iamreviewing.component.previewer;
+
+import javafx.application.Platform;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.DoubleConsumer;
+
+/**
+ * 所有预览器共用的后台调度器
+ * 工作线程数有上限，快速切换附件时不会为每次预览各开线程；每次预览对应一个Token，
+ * 预览被替换或移出界面时取消，排队中的任务不再执行，界面更新也被丢弃，
+ * 正在执行的任务可通过Token.isCancelled()在检查点提前结束
+ */
+public final class PreviewScheduler {
+
+    // 预览任务多为读文件和解码，线程数不超过4，留出CPU给JavaFX线程和渲染引擎
+    private static final int WORKER_COUNT = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(WORKER_COUNT, runnable -> {
+        Thread thread = new Thread(runnable, "preview-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 一次预览的取消标记
+     */
+    public static final class Token {
+        private volatile boolean cancelled;
+        // 取消时执行的动作，取消后清空
+        private final List<Runnable> cancelActions = new ArrayList<>();
+        // 加载进度的接收方，由PreviewDriver设置为加载提示中的进度条
+        private volatile DoubleConsumer progressListener;
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * 取消预览，重复调用无效果
+         */
+        public void cancel() {
+            List<Runnable> actions;
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                cancelled = true;
+                actions = new ArrayList<>(cancelActions);
+                cancelActions.clear();
+            }
+            for (Runnable action : actions) {
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    System.err.println("取消预览时出错: " + e.getMessage());
+                }
+            }
+        }
+
+        /**
+         * 注册取消时执行的动作，已取消时立即执行
+         */
+        public void onCancel(Runnable action) {
+            synchronized (this) {
+                if (!cancelled) {
+                    cancelActions.add(action);
+                    return;
+                }
+            }
+            action.run();
+        }
+
+        /**
+         * 报告加载进度，0到1之间，负数表示进度未知；可在任意线程调用，预览已取消时忽略
+         */
+        public void reportProgress(double progress) {
+            DoubleConsumer listener = progressListener;
+            if (listener == null || cancelled) {
+                return;
+            }
+            if (Platform.isFxApplicationThread()) {
+                listener.accept(progress);
+            } else {
+                runLater(this, () -> listener.accept(progress));
+            }
+        }
+
+        void onProgress(DoubleConsumer listener) {
+            progressListener = listener;
+        }
+    }
+
+    private PreviewScheduler() {
+    }
+
+    /**
+     * 在后台执行预览任务，预览取消后排队中的任务不再执行
+     */
+    public static void submit(Token token, Runnable task) {
+        if (token.isCancelled()) {
+            return;
+        }
+        Future<?> future = executor.submit(() -> {
+            if (!token.isCancelled()) {
+                task.run();
+            }
+        });
+        // 不中断正在执行的任务，避免中断文件通道影响共享的文档和缓存
+        token.onCancel(() -> future.cancel(false));
+    }
+
+    /**
+     * 在JavaFX线程中更新界面，预览已取消时丢弃
+     */
+    public static void runLater(Token token, Runnable action) {
+        Platform.runLater(() -> {
+            if (!token.isCancelled()) {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * 共用的工作线程，供按文件共享结果的缓存使用，这类任务不随单次预览取消
+     */
+    public static Executor executor() {
+        return executor;
+    }
+}
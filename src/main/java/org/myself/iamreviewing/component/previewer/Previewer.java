@@ -1,17 +1,55 @@
 package org.myself.iamreviewing.component.previewer;
 
-import javafx.scene.layout.VBox;
+import javafx.scene.Node;
+
 import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
  * 文件预览器接口
- * 定义了所有文件预览器需要实现的方法
+ * 预览分为三步：load在后台读取和解析文件得到模型，可以缓存；render在JavaFX线程中由模型构建界面；
+ * 预览被替换或移出界面时调用dispose释放render创建的资源。三步由PreviewDriver统一驱动。
+ * 每个预览器实例只用于一次预览
+ * @param <M> 加载得到的模型
  */
-public interface Previewer {
+public interface Previewer<M> {
+
     /**
-     * 显示文件预览
+     * 加载文件，在JavaFX线程中调用，耗时的读取和解析应通过PreviewScheduler放到后台
      * @param file 文件对象
-     * @param parentContainer 父容器，预览内容将添加到这个容器中
+     * @param token 本次预览的取消标记
+     * @return 加载结果，失败时异常完成
+     */
+    CompletableFuture<M> load(File file, PreviewScheduler.Token token);
+
+    /**
+     * 由模型构建预览界面，在JavaFX线程中调用
+     */
+    Node render(M model);
+
+    /**
+     * 释放render创建的资源，如媒体播放器，在JavaFX线程中调用
+     */
+    default void dispose() {
+    }
+
+    /**
+     * 由加载函数和构建函数组成预览器，用于共用加载逻辑但界面样式不同的场合
      */
-    void showPreview(File file, VBox parentContainer);
-}
\ No newline at end of file
+    static <M> Previewer<M> of(BiFunction<File, PreviewScheduler.Token, CompletableFuture<M>> loader,
+                               Function<M, Node> renderer) {
+        return new Previewer<>() {
+            @Override
+            public CompletableFuture<M> load(File file, PreviewScheduler.Token token) {
+                return loader.apply(file, token);
+            }
+
+            @Override
+            public Node render(M model) {
+                return renderer.apply(model);
+            }
+        };
+    }
+}
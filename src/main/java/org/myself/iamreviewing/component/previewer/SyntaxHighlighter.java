@@ -0,0 +1,279 @@
+package org.myself.iamreviewing.component.previewer;
+
+import javafx.scene.paint.Color;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 共用的语法高亮引擎
+ * 每种语言的关键字和注释规则在类加载时建好，词法分析是手写的单遍扫描，不使用正则表达式；
+ * 多行注释的状态跨行延续，逐行高亮时由调用方把上一行结束时的状态传入下一行。
+ * 相邻的同类记号会合并，减少生成的节点数，结果由HighlightedCode保存供代码视图按行取用。吞吐量目标为不低于20MB/s，见SyntaxHighlighterBenchmarkTest
+ */
+public final class SyntaxHighlighter {
+
+    /**
+     * 记号类型
+     */
+    public enum TokenType {
+        PLAIN(Color.WHITE),
+        KEYWORD(Color.BLUE),
+        STRING(Color.ORANGE),
+        NUMBER(Color.PURPLE),
+        COMMENT(Color.GREEN);
+
+        private final Color color;
+
+        TokenType(Color color) {
+            this.color = color;
+        }
+
+        public Color color() {
+            return color;
+        }
+    }
+
+    /**
+     * 一个记号，start和end为在文本中的偏移，左闭右开
+     */
+    public record Token(int start, int end, TokenType type) {
+    }
+
+    /**
+     * 语言的词法规则
+     * @param keywords 关键字
+     * @param lineComment 单行注释起始符，没有时为null
+     * @param blockCommentStart 多行注释起始符，没有时为null
+     * @param blockCommentEnd 多行注释结束符，没有时为null
+     */
+    public record Language(Set<String> keywords, String lineComment, String blockCommentStart,
+                           String blockCommentEnd) {
+    }
+
+    // 扩展名 -> 语言规则
+    private static final Map<String, Language> LANGUAGES = new HashMap<>();
+    // 未知语言只识别字符串、数字和C风格注释
+    private static final Language DEFAULT_LANGUAGE = new Language(Collections.emptySet(), "//", "/*", "*/");
+
+    static {
+        // C语言关键字
+        Set<String> cKeywords = new HashSet<>(Arrays.asList(
+                "auto", "break", "case", "char", "const", "continue", "default", "do",
+                "double", "else", "enum", "extern", "float", "for", "goto", "if",
+                "int", "long", "register", "return", "short", "signed", "sizeof", "static",
+                "struct", "switch", "typedef", "union", "unsigned", "void", "volatile", "while"
+        ));
+
+        // C++语言关键字（包含C关键字）
+        Set<String> cppKeywords = new HashSet<>(cKeywords);
+        cppKeywords.addAll(Arrays.asList(
+                "alignas", "alignof", "and", "and_eq", "asm", "atomic_cancel", "atomic_commit",
+                "atomic_noexcept", "auto", "bitand", "bitor", "bool", "break", "case", "catch",
+                "char", "char8_t", "char16_t", "char32_t", "class", "compl", "concept", "const",
+                "consteval", "constexpr", "constinit", "const_cast", "continue", "co_await", "co_return",
+                "co_yield", "decltype", "default", "delete", "do", "double", "dynamic_cast", "else",
+                "enum", "explicit", "export", "extern", "false", "float", "for", "friend",
+                "goto", "if", "inline", "int", "long", "mutable", "namespace", "new",
+                "noexcept", "not", "not_eq", "nullptr", "operator", "or", "or_eq", "private",
+                "protected", "public", "reflexpr", "register", "reinterpret_cast", "requires", "return",
+                "short", "signed", "sizeof", "static", "static_assert", "static_cast", "struct", "switch",
+                "synchronized", "template", "this", "thread_local", "throw", "true", "try", "typedef",
+                "typeid", "typename", "union", "unsigned", "using", "virtual", "void", "volatile",
+                "wchar_t", "while", "xor", "xor_eq"
+        ));
+
+        // Java语言关键字
+        Set<String> javaKeywords = new HashSet<>(Arrays.asList(
+                "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char",
+                "class", "const", "continue", "default", "do", "double", "else", "enum",
+                "extends", "final", "finally", "float", "for", "goto", "if", "implements",
+                "import", "instanceof", "int", "interface", "long", "native", "new", "package",
+                "private", "protected", "public", "return", "short", "static", "strictfp", "super",
+                "switch", "synchronized", "this", "throw", "throws", "transient", "try", "void",
+                "volatile", "while", "true", "false", "null"
+        ));
+
+        // Python语言关键字
+        Set<String> pythonKeywords = new HashSet<>(Arrays.asList(
+                "False", "None", "True", "and", "as", "assert", "async", "await", "break",
+                "class", "continue", "def", "del", "elif", "else", "except", "finally", "for",
+                "from", "global", "if", "import", "in", "is", "lambda", "nonlocal", "not",
+                "or", "pass", "raise", "return", "try", "while", "with", "yield"
+        ));
+
+        Language c = new Language(Set.copyOf(cKeywords), "//", "/*", "*/");
+        Language cpp = new Language(Set.copyOf(cppKeywords), "//", "/*", "*/");
+        Language python = new Language(Set.copyOf(pythonKeywords), "#", null, null);
+        LANGUAGES.put(".c", c);
+        LANGUAGES.put(".h", c);
+        LANGUAGES.put(".cpp", cpp);
+        LANGUAGES.put(".cxx", cpp);
+        LANGUAGES.put(".cc", cpp);
+        LANGUAGES.put(".java", new Language(Set.copyOf(javaKeywords), "//", "/*", "*/"));
+        LANGUAGES.put(".py", python);
+        LANGUAGES.put(".pyw", python);
+    }
+
+    private SyntaxHighlighter() {
+    }
+
+    /**
+     * 按扩展名获取语言规则，未知扩展名返回默认规则
+     * @param fileExtension 扩展名，含点号，如".java"
+     */
+    public static Language languageFor(String fileExtension) {
+        return LANGUAGES.getOrDefault(fileExtension == null ? "" : fileExtension.toLowerCase(), DEFAULT_LANGUAGE);
+    }
+
+    /**
+     * 对整段文本做高亮，换行符归入普通文本
+     */
+    public static List<Token> tokenize(String content, Language language) {
+        List<Token> tokens = new ArrayList<>();
+        scan(content, 0, content.length(), false, language, tokens);
+        return tokens;
+    }
+
+    /**
+     * 对文本中的一段做高亮，用于分块高亮大文件
+     * @param from 起始偏移，应为行首
+     * @param to 结束偏移，应为行首或文本末尾
+     * @param inBlockComment 上一块结束时是否处于多行注释中
+     * @param tokens 输出的记号，偏移相对于整段文本
+     * @return 本块结束时是否处于多行注释中
+     */
+    public static boolean tokenizeRange(String content, int from, int to, boolean inBlockComment, Language language,
+                                        List<Token> tokens) {
+        return scan(content, from, to, inBlockComment, language, tokens);
+    }
+
+    /**
+     * 对一行做高亮
+     * @param line 一行文本，不含换行符
+     * @param inBlockComment 上一行结束时是否处于多行注释中
+     * @param tokens 输出的记号，偏移相对于行首
+     * @return 本行结束时是否处于多行注释中
+     */
+    public static boolean tokenizeLine(String line, boolean inBlockComment, Language language, List<Token> tokens) {
+        return scan(line, 0, line.length(), inBlockComment, language, tokens);
+    }
+
+    // 单遍扫描[from, to)，返回结束时是否处于多行注释中
+    private static boolean scan(String text, int from, int to, boolean inBlockComment, Language language,
+                                List<Token> output) {
+        TokenBuilder tokens = new TokenBuilder(output);
+        String lineComment = language.lineComment();
+        String blockStart = language.blockCommentStart();
+        String blockEnd = language.blockCommentEnd();
+        int i = from;
+
+        if (inBlockComment && blockEnd != null) {
+            int end = text.indexOf(blockEnd, i);
+            if (end < 0 || end + blockEnd.length() > to) {
+                tokens.add(i, to, TokenType.COMMENT);
+                tokens.flush();
+                return true;
+            }
+            i = end + blockEnd.length();
+            tokens.add(from, i, TokenType.COMMENT);
+        }
+
+        while (i < to) {
+            char c = text.charAt(i);
+            int start = i;
+            if (blockStart != null && c == blockStart.charAt(0) && text.startsWith(blockStart, i)) {
+                int end = text.indexOf(blockEnd, i + blockStart.length());
+                if (end < 0 || end + blockEnd.length() > to) {
+                    tokens.add(start, to, TokenType.COMMENT);
+                    tokens.flush();
+                    return true;
+                }
+                i = end + blockEnd.length();
+                tokens.add(start, i, TokenType.COMMENT);
+            } else if (lineComment != null && c == lineComment.charAt(0) && text.startsWith(lineComment, i)) {
+                int end = text.indexOf('\n', i);
+                i = end < 0 || end > to ? to : end;
+                tokens.add(start, i, TokenType.COMMENT);
+            } else if (c == '"' || c == '\'') {
+                // 字符串到同一行内的配对引号为止，支持反斜杠转义，未闭合时到行尾
+                i++;
+                while (i < to) {
+                    char d = text.charAt(i);
+                    if (d == '\\' && i + 1 < to && text.charAt(i + 1) != '\n') {
+                        i += 2;
+                    } else if (d == c) {
+                        i++;
+                        break;
+                    } else if (d == '\n') {
+                        break;
+                    } else {
+                        i++;
+                    }
+                }
+                tokens.add(start, i, TokenType.STRING);
+            } else if (c >= '0' && c <= '9') {
+                // 数字，包括小数、十六进制和类型后缀
+                i++;
+                while (i < to && (Character.isLetterOrDigit(text.charAt(i)) || text.charAt(i) == '.'
+                        || text.charAt(i) == '_')) {
+                    i++;
+                }
+                tokens.add(start, i, TokenType.NUMBER);
+            } else if (Character.isJavaIdentifierStart(c)) {
+                i++;
+                while (i < to && Character.isJavaIdentifierPart(text.charAt(i))) {
+                    i++;
+                }
+                boolean keyword = language.keywords().contains(text.substring(start, i));
+                tokens.add(start, i, keyword ? TokenType.KEYWORD : TokenType.PLAIN);
+            } else {
+                i++;
+                tokens.add(start, i, TokenType.PLAIN);
+            }
+        }
+        tokens.flush();
+        return false;
+    }
+
+    /**
+     * 收集记号，与前一个同类且相邻的记号合并后再输出
+     */
+    private static final class TokenBuilder {
+        private final List<Token> output;
+        private TokenType type;
+        private int start;
+        private int end;
+
+        TokenBuilder(List<Token> output) {
+            this.output = output;
+        }
+
+        void add(int tokenStart, int tokenEnd, TokenType tokenType) {
+            if (tokenStart >= tokenEnd) {
+                return;
+            }
+            if (type == tokenType && end == tokenStart) {
+                end = tokenEnd;
+                return;
+            }
+            flush();
+            type = tokenType;
+            start = tokenStart;
+            end = tokenEnd;
+        }
+
+        void flush() {
+            if (type != null) {
+                output.add(new Token(start, end, type));
+                type = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package org.myself.iamreviewing.component.previewer;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 附件文本提取器
+ * 与预览器使用相同的PDFBox/POI/文本读取方式，按页、段落或行提取纯文本，供内容搜索建索引
+ */
+public final class TextExtractor {
+
+    // 按行提取的文本和代码文件扩展名
+    private static final Set<String> LINE_EXTENSIONS = Set.of(
+            ".txt", ".md", ".text", ".java", ".c", ".h", ".cpp", ".hpp", ".cxx", ".cc",
+            ".py", ".pyw", ".js", ".html", ".css"
+    );
+    // 超过该大小的文本文件不提取，避免索引占用过多内存
+    private static final long MAX_TEXT_BYTES = 32L * 1024 * 1024;
+
+    private TextExtractor() {
+    }
+
+    /**
+     * 提取出的一段文本
+     * @param location 在文件中的位置描述，如"第3页"、"第12行"
+     * @param text 文本内容
+     */
+    public record Segment(String location, String text) {
+    }
+
+    /**
+     * 是否支持提取该文件的文本
+     */
+    public static boolean isSupported(File file) {
+        String extension = getFileExtension(file.getName());
+        return ".pdf".equals(extension) || ".docx".equals(extension) || LINE_EXTENSIONS.contains(extension);
+    }
+
+    /**
+     * 按文件扩展名提取文本，不支持的类型返回空列表
+     */
+    public static List<Segment> extract(File file) throws IOException {
+        String extension = getFileExtension(file.getName());
+        if (".pdf".equals(extension)) {
+            return readPdfPages(file);
+        }
+        if (".docx".equals(extension)) {
+            List<Segment> segments = new ArrayList<>();
+            List<String> paragraphs = readDocxParagraphs(file);
+            for (int i = 0; i < paragraphs.size(); i++) {
+                segments.add(new Segment("第 " + (i + 1) + " 段", paragraphs.get(i)));
+            }
+            return segments;
+        }
+        if (LINE_EXTENSIONS.contains(extension) && file.length() <= MAX_TEXT_BYTES) {
+            return readTextLines(file);
+        }
+        return List.of();
+    }
+
+    /**
+     * 逐页提取PDF文本
+     */
+    public static List<Segment> readPdfPages(File file) throws IOException {
+        List<Segment> segments = new ArrayList<>();
+        try (PDDocument document = PDDocument.load(file)) {
+            PDFTextStripper stripper = new PDFTextStripper();
+            int pageCount = document.getNumberOfPages();
+            for (int pageNum = 1; pageNum <= pageCount; pageNum++) {
+                stripper.setStartPage(pageNum);
+                stripper.setEndPage(pageNum);
+                String text = stripper.getText(document).trim();
+                if (!text.isEmpty()) {
+                    segments.add(new Segment("第 " + pageNum + " 页", text));
+                }
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * 读取DOCX中的非空段落
+     */
+    public static List<String> readDocxParagraphs(File file) throws IOException {
+        List<String> paragraphs = new ArrayList<>();
+        try (InputStream in = Files.newInputStream(file.toPath());
+             XWPFDocument document = new XWPFDocument(in)) {
+            for (XWPFParagraph paragraph : document.getParagraphs()) {
+                String text = paragraph.getText();
+                if (!text.isEmpty()) {
+                    paragraphs.add(text);
+                }
+            }
+        }
+        return paragraphs;
+    }
+
+    /**
+     * 按探测到的编码逐行读取文本文件，跳过空行，无法解码的字节替换为占位符
+     */
+    public static List<Segment> readTextLines(File file) throws IOException {
+        List<Segment> segments = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                Files.newInputStream(file.toPath()),
+                Charset.forName(CharsetDetector.detect(file)).newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE)))) {
+            String line;
+            int lineNum = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNum++;
+                if (!line.isBlank()) {
+                    segments.add(new Segment("第 " + lineNum + " 行", line));
+                }
+            }
+        }
+        return segments;
+    }
+
+    private static String getFileExtension(String fileName) {
+        int lastDotIndex = fileName.lastIndexOf('.');
+        if (lastDotIndex == -1) {
+            return "";
+        }
+        return fileName.substring(lastDotIndex).toLowerCase();
+    }
+}
@@ -0,0 +1,104 @@
+package org.myself.iamreviewing.component.previewer;
+
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.input.ClipboardContent;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.input.Clipboard;
+
+import java.nio.charset.Charset;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * 按行虚拟化的大文本查看器
+ * 数据来自MappedTextFile，列表项只是行号，ListView只为可见行创建单元格并在显示时解码该行，
+ * 堆中只有可见的几十行文本；行索引在后台建立，建立期间可以先浏览已索引的部分。
+ * 支持多选后Ctrl+C复制选中的行
+ */
+public class TextLineView extends ListView<Integer> {
+
+    private final MappedTextFile document;
+    private final LineNumberList lines = new LineNumberList();
+    private final IntConsumer indexListener = this::onIndexProgress;
+    private Runnable onIndexComplete;
+
+    /**
+     * @param document 映射的文本文件，可与其他查看器共用
+     * @param textStyle 每行文本的样式
+     */
+    public TextLineView(MappedTextFile document, String textStyle) {
+        this.document = document;
+        setItems(lines);
+        getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        setCellFactory(list -> new LineCell(textStyle));
+        lines.setSize(document.lineCount());
+
+        // 复制选中的行
+        KeyCombination copy = new KeyCodeCombination(KeyCode.C, KeyCombination.SHORTCUT_DOWN);
+        setOnKeyPressed(e -> {
+            if (copy.match(e)) {
+                ClipboardContent content = new ClipboardContent();
+                content.putString(getSelectionModel().getSelectedIndices().stream()
+                        .sorted()
+                        .map(document::line)
+                        .collect(Collectors.joining(System.lineSeparator())));
+                Clipboard.getSystemClipboard().setContent(content);
+                e.consume();
+            }
+        });
+
+        // 所有查看器都从界面移除后不再需要索引
+        sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (oldScene != null && newScene == null) {
+                document.removeIndexListener(indexListener);
+                document.release();
+            } else if (oldScene == null && newScene != null) {
+                document.addIndexListener(indexListener);
+                document.retain();
+                // 加入界面前已索引的行
+                lines.setSize(document.lineCount());
+            }
+        });
+    }
+
+    /**
+     * 设置索引建立完成时的回调
+     */
+    public void setOnIndexComplete(Runnable onIndexComplete) {
+        this.onIndexComplete = onIndexComplete;
+    }
+
+    /**
+     * 按指定编码重新建立索引，共用同一文档的查看器都会随之更新，已索引的行立即可以浏览
+     */
+    public void load(Charset charset) {
+        document.index(charset);
+    }
+
+    private void onIndexProgress(int lineCount) {
+        if (lineCount == 0) {
+            getSelectionModel().clearSelection();
+        }
+        lines.setSize(lineCount);
+        if (document.isIndexComplete() && onIndexComplete != null) {
+            onIndexComplete.run();
+        }
+    }
+
+    private class LineCell extends ListCell<Integer> {
+
+        LineCell(String textStyle) {
+            setStyle(textStyle);
+        }
+
+        @Override
+        protected void updateItem(Integer index, boolean empty) {
+            super.updateItem(index, empty);
+            setText(empty || index == null ? null : document.line(index));
+        }
+    }
+}
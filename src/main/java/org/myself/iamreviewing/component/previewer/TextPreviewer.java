@@ -1,12 +1,10 @@
 package org.myself.iamreviewing.component.previewer;
 
-import javafx.application.Platform;
 import javafx.geometry.Pos;
+import javafx.scene.Node;
 import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
-import javafx.scene.control.ScrollPane;
-import javafx.scene.control.TextArea;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
@@ -14,23 +12,52 @@ import javafx.stage.Stage;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 文本/代码文件预览器
  */
-public class TextPreviewer implements Previewer {
+public class TextPreviewer implements Previewer<TextPreviewer.TextDocument> {
 
-    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+    /**
+     * 映射到内存的文本文件及探测到的编码
+     */
+    public record TextDocument(MappedTextFile document, String charset) {
+    }
 
     @Override
-    public void showPreview(File file, VBox parentContainer) {
+    public CompletableFuture<TextDocument> load(File file, PreviewScheduler.Token token) {
+        return loadDocument(file, token);
+    }
+
+    /**
+     * 在后台映射文件并探测编码
+     */
+    public static CompletableFuture<TextDocument> loadDocument(File file, PreviewScheduler.Token token) {
+        // 文件映射到内存，按行索引后只解码可见的行，不把整个文件读入堆；编码只根据文件开头的样本探测
+        CompletableFuture<TextDocument> result = new CompletableFuture<>();
+        PreviewScheduler.submit(token, () -> {
+            try {
+                MappedTextFile document = MappedTextFile.open(file);
+                String detected = CharsetDetector.detect(document.head(CharsetDetector.SAMPLE_BYTES));
+                result.complete(new TextDocument(document, detected));
+            } catch (IOException e) {
+                result.completeExceptionally(new UncheckedIOException(e));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public Node render(TextDocument model) {
+        MappedTextFile document = model.document();
+        File file = document.getFile();
         String previewType = file.getName().endsWith(".java") || file.getName().endsWith(".c") || 
                              file.getName().endsWith(".cpp") || file.getName().endsWith(".py") || 
                              file.getName().endsWith(".js") || file.getName().endsWith(".html") || 
@@ -45,129 +72,82 @@ public class TextPreviewer implements Previewer {
             "UTF-8", "GBK", "GB2312", "ISO-8859-1", "UTF-16", "UTF-32"
         );
         charsetCombo.getItems().addAll(commonCharsets);
-        charsetCombo.setValue("UTF-8"); // 默认编码
+        charsetCombo.setValue(model.charset());
 
         // 放大按钮
         Button enlargeBtn = new Button("放大查看");
 
-        // 创建代码编辑器
-        TextArea textArea = new TextArea();
-        textArea.setWrapText(false); // 代码文件不自动换行
-        textArea.setEditable(false);
-
         // 根据文件类型设置不同的样式
+        String viewStyle;
+        String lineStyle;
         if ("代码".equals(previewType)) {
-            // 代码文件使用等宽字体和语法高亮样式
-            textArea.setStyle("-fx-font-family: 'Consolas', 'Monaco', monospace; -fx-font-size: 12px; -fx-background-color: #1e1e1e; -fx-text-fill: #d4d4d4; -fx-highlight-fill: #424242; -fx-highlight-text-fill: #ffffff;");
+            // 代码文件使用等宽字体和深色背景
+            viewStyle = "-fx-background-color: #1e1e1e; -fx-control-inner-background: #1e1e1e; -fx-selection-bar: #424242; -fx-selection-bar-non-focused: #333333;";
+            lineStyle = "-fx-font-family: 'Consolas', 'Monaco', monospace; -fx-text-fill: #d4d4d4; -fx-padding: 0 4px;";
         } else {
             // 普通文本使用默认样式
-            textArea.setStyle("-fx-font-family: 'Microsoft YaHei', 'SimSun', serif; -fx-font-size: 12px; -fx-background-color: #f9f9f9; -fx-text-fill: #333;");
+            viewStyle = "-fx-background-color: #f9f9f9; -fx-control-inner-background: #f9f9f9;";
+            lineStyle = "-fx-font-family: 'Microsoft YaHei', 'SimSun', serif; -fx-text-fill: #333; -fx-padding: 0 4px;";
         }
 
-        textArea.setPrefRowCount(20);
-        VBox.setVgrow(textArea, Priority.ALWAYS);
-
-        ScrollPane scrollPane = new ScrollPane(textArea);
-        scrollPane.setFitToWidth(true);
-        scrollPane.setFitToHeight(true);
-        scrollPane.setHbarPolicy(ScrollPane.ScrollBarPolicy.AS_NEEDED);
-        scrollPane.setVbarPolicy(ScrollPane.ScrollBarPolicy.AS_NEEDED);
-        VBox.setVgrow(scrollPane, Priority.ALWAYS);
-
-        // 加载文本内容的方法
-        Runnable loadText = () -> {
-            try {
-                String charset = charsetCombo.getValue();
-                byte[] bytes = Files.readAllBytes(Paths.get(file.getAbsolutePath()));
-                String content = new String(bytes, Charset.forName(charset));
-
-                // 在UI线程中更新文本
-                Platform.runLater(() -> textArea.setText(content));
-            } catch (IOException e) {
-                showError("读取文件内容失败: " + e.getMessage(), parentContainer);
+        TextLineView lineView = new TextLineView(document, lineStyle + " -fx-font-size: 12px;");
+        lineView.setStyle(viewStyle);
+        lineView.setPrefHeight(400);
+        VBox.setVgrow(lineView, Priority.ALWAYS);
+
+        // 行数和索引进度
+        Label statusLabel = new Label("正在建立行索引...");
+        statusLabel.setStyle("-fx-text-fill: #718096;");
+        document.addIndexListener(lineCount -> statusLabel.setText(document.isIndexComplete()
+                ? "共 " + lineCount + " 行"
+                : "已索引 " + lineCount + " 行..."));
+
+        // 切换编码只在后台按新编码重建索引，文件映射只有一份，不重新读取文件
+        charsetCombo.valueProperty().addListener((obs, oldCharset, newCharset) -> {
+            if (newCharset != null) {
+                lineView.load(Charset.forName(newCharset));
             }
-        };
-
-        // 异步加载文本内容，避免大文件阻塞UI线程
-        executor.submit(loadText);
-
-        // 编码切换事件
-        charsetCombo.setOnAction(e -> loadText.run());
+        });
+        // 按探测到的编码建立行索引，已索引的部分立即可以浏览
+        lineView.load(Charset.forName(model.charset()));
 
-        // 放大查看事件
+        // 放大查看事件，与预览共用同一个映射和索引
         enlargeBtn.setOnAction(e -> {
             Stage stage = new Stage();
             stage.setTitle("放大查看 - " + file.getName());
 
-            TextArea largeTextArea = new TextArea();
-            largeTextArea.setWrapText(false);
-            largeTextArea.setEditable(false);
-
-            // 放大视图的样式
-            if ("代码".equals(previewType)) {
-                largeTextArea.setStyle("-fx-font-family: 'Consolas', 'Monaco', monospace; -fx-font-size: 14px; -fx-background-color: #1e1e1e; -fx-text-fill: #d4d4d4; -fx-highlight-fill: #424242; -fx-highlight-text-fill: #ffffff;");
-            } else {
-                largeTextArea.setStyle("-fx-font-family: 'Microsoft YaHei', 'SimSun', serif; -fx-font-size: 14px; -fx-background-color: #f9f9f9; -fx-text-fill: #333;");
-            }
-
-            // 加载内容到放大视图
-            largeTextArea.setText(textArea.getText());
+            TextLineView largeLineView = new TextLineView(document, lineStyle + " -fx-font-size: 14px;");
+            largeLineView.setStyle(viewStyle);
+            VBox.setVgrow(largeLineView, Priority.ALWAYS);
 
-            ScrollPane largeScrollPane = new ScrollPane(largeTextArea);
-            largeScrollPane.setFitToWidth(true);
-            largeScrollPane.setFitToHeight(true);
-            largeScrollPane.setHbarPolicy(ScrollPane.ScrollBarPolicy.AS_NEEDED);
-            largeScrollPane.setVbarPolicy(ScrollPane.ScrollBarPolicy.AS_NEEDED);
-
-            // 放大视图的编码选择
+            // 放大视图的编码选择，与预览的编码选择同步
             Label largeCharsetLabel = new Label("编码: ");
             ComboBox<String> largeCharsetCombo = new ComboBox<>();
             largeCharsetCombo.getItems().addAll(commonCharsets);
-            largeCharsetCombo.setValue(charsetCombo.getValue());
-
-            // 放大视图的编码切换
-            largeCharsetCombo.setOnAction(ev -> {
-                try {
-                    String charset = largeCharsetCombo.getValue();
-                    byte[] bytes = Files.readAllBytes(Paths.get(file.getAbsolutePath()));
-                    String content = new String(bytes, Charset.forName(charset));
-                    largeTextArea.setText(content);
-                } catch (IOException ex) {
-                    showError("读取文件内容失败: " + ex.getMessage(), new VBox());
-                }
-            });
+            largeCharsetCombo.valueProperty().bindBidirectional(charsetCombo.valueProperty());
 
             HBox largeToolbar = new HBox(10, largeCharsetLabel, largeCharsetCombo);
             largeToolbar.setAlignment(Pos.CENTER_LEFT);
             largeToolbar.setStyle("-fx-padding: 10px;");
 
-            VBox largeVBox = new VBox(10, largeToolbar, largeScrollPane);
+            VBox largeVBox = new VBox(10, largeToolbar, largeLineView);
             largeVBox.setStyle("-fx-padding: 0 10px 10px 10px;");
-            VBox.setVgrow(largeScrollPane, Priority.ALWAYS);
 
             stage.setScene(new javafx.scene.Scene(largeVBox, 1000, 800));
+            stage.setOnHidden(ev -> {
+                largeCharsetCombo.valueProperty().unbindBidirectional(charsetCombo.valueProperty());
+                largeVBox.getChildren().clear();
+            });
             stage.show();
         });
 
         // 工具栏
         HBox toolbar = new HBox(10);
         toolbar.setAlignment(Pos.CENTER_LEFT);
-        toolbar.getChildren().addAll(charsetLabel, charsetCombo, enlargeBtn);
-
-        parentContainer.getChildren().addAll(title, toolbar, scrollPane);
-    }
-
-    /**
-     * 显示错误信息
-     * @param message 错误信息
-     * @param container 容器，错误信息将添加到这个容器中
-     */
-    private void showError(String message, VBox container) {
-        Label errorLabel = new Label(message);
-        errorLabel.setStyle("-fx-text-fill: red; -fx-font-weight: bold;");
-        errorLabel.setWrapText(true);
-        errorLabel.setAlignment(Pos.CENTER);
+        toolbar.getChildren().addAll(charsetLabel, charsetCombo, enlargeBtn, statusLabel);
 
-        container.getChildren().add(errorLabel);
+        VBox root = new VBox(10, title, toolbar, lineView);
+        VBox.setVgrow(root, Priority.ALWAYS);
+        return root;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,206 @@
+package org.myself.iamreviewing.component.previewer;
+
+import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.image.Image;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 磁盘缩略图缓存
+ * 缩略图以PNG保存在用户目录下，文件名由"内容指纹+规格"组成，内容指纹包含文件的修改时间，
+ * 文件被编辑后不会命中旧缩略图，移动或改名（保留修改时间）后仍能命中；
+ * 总大小超过MAX_BYTES时按最近访问时间淘汰最旧的缩略图。所有方法都会读写磁盘，不要在JavaFX线程中调用
+ */
+public final class ThumbnailStore {
+
+    private static final Path STORE_DIR = Paths.get(System.getProperty("user.home"), ".iamreviewing", "thumbnails");
+    // 缩略图目录大小上限
+    private static final long MAX_BYTES = 256L * 1024 * 1024;
+    // 图片缩略图长边的最大像素，不小于各预览区域的最大显示尺寸
+    public static final int IMAGE_THUMBNAIL_SIZE = 1024;
+    private static final String IMAGE_VARIANT = "max" + IMAGE_THUMBNAIL_SIZE;
+    // 计算内容指纹时从文件头、中、尾各采样的字节数
+    private static final int SAMPLE_BYTES = 64 * 1024;
+
+    // 文件版本 -> 内容指纹，同一版本的文件只计算一次
+    private static final Map<FileVersion, String> fingerprints = new ConcurrentHashMap<>();
+    // 缩略图目录当前总大小，第一次写入时扫描得到，-1表示尚未扫描
+    private static long totalBytes = -1;
+
+    private record FileVersion(String path, long lastModified, long size) {
+    }
+
+    private ThumbnailStore() {
+    }
+
+    /**
+     * 读取缩略图，命中时刷新其访问时间
+     * @param source 原文件
+     * @param variant 缩略图规格，如"page0@1.5"
+     * @return 缩略图，不存在或读取失败时返回null
+     */
+    public static Image load(File source, String variant) {
+        try {
+            Path path = thumbnailPath(source, variant);
+            if (!Files.isRegularFile(path)) {
+                return null;
+            }
+            Image image = new Image(path.toUri().toString());
+            if (image.isError()) {
+                return null;
+            }
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+            return image;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 保存缩略图，写入失败只打印日志
+     */
+    public static void save(File source, String variant, Image image) {
+        try {
+            Files.createDirectories(STORE_DIR);
+            Path path = thumbnailPath(source, variant);
+            // 先写临时文件再改名，避免并发读取到写了一半的文件
+            Path temp = Files.createTempFile(STORE_DIR, "thumbnail", ".tmp");
+            ImageIO.write(SwingFXUtils.fromFXImage(image, null), "png", temp.toFile());
+            replace(temp, path);
+        } catch (IOException e) {
+            System.err.println("保存缩略图失败: " + source.getName() + " - " + e.getMessage());
+        }
+    }
+
+    /**
+     * 图片是否需要缩略图：本身就足够小的图片和GIF动图直接加载原图
+     */
+    public static boolean needsImageThumbnail(File file) {
+        return !file.getName().toLowerCase().endsWith(".gif") && isLargerThan(file, IMAGE_THUMBNAIL_SIZE);
+    }
+
+    /**
+     * 读取图片的预览缩略图
+     * @return 缩略图，不存在时返回null
+     */
+    public static Image loadImageThumbnail(File file) {
+        return load(file, IMAGE_VARIANT);
+    }
+
+    /**
+     * 保存图片的预览缩略图
+     */
+    public static void saveImageThumbnail(File file, Image image) {
+        save(file, IMAGE_VARIANT, image);
+    }
+
+    // 只读取图片头部信息判断尺寸，无法识别时按大图处理
+    private static boolean isLargerThan(File file, int size) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file)) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                return true;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return reader.getWidth(0) > size || reader.getHeight(0) > size;
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private static Path thumbnailPath(File source, String variant) throws IOException {
+        return STORE_DIR.resolve(fingerprint(source) + "-" + variant.replaceAll("[^A-Za-z0-9.@_-]", "_") + ".png");
+    }
+
+    // 内容指纹：文件大小和修改时间加上头、中、尾三段采样的SHA-1，避免为大文件读取全部内容。
+    // 加入修改时间后，大小不变且改动不在采样范围内的编辑（如重新保存的PDF）不会命中旧缩略图；
+    // 移动或改名通常保留修改时间，仍能命中
+    private static String fingerprint(File source) throws IOException {
+        FileVersion version = new FileVersion(source.getAbsolutePath(), source.lastModified(), source.length());
+        String cached = fingerprints.get(version);
+        if (cached != null) {
+            return cached;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(source, "r")) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            long length = file.length();
+            digest.update((length + "@" + source.lastModified()).getBytes());
+            byte[] buffer = new byte[SAMPLE_BYTES];
+            for (long offset : new long[]{0, Math.max(0, length / 2 - SAMPLE_BYTES / 2), Math.max(0, length - SAMPLE_BYTES)}) {
+                file.seek(offset);
+                int read = file.read(buffer);
+                if (read > 0) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+            String fingerprint = HexFormat.of().formatHex(digest.digest());
+            fingerprints.put(version, fingerprint);
+            return fingerprint;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // 用临时文件替换缩略图，总大小只计入新旧文件的差值
+    private static synchronized void replace(Path temp, Path path) throws IOException {
+        long replacedBytes = Files.exists(path) ? Files.size(path) : 0;
+        long size = Files.size(temp);
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        trimToSize(size - replacedBytes);
+    }
+
+    // 超出上限时删除最久未访问的缩略图，直到降到上限的90%
+    private static synchronized void trimToSize(long addedBytes) throws IOException {
+        if (totalBytes < 0) {
+            totalBytes = listThumbnails().stream().mapToLong(path -> path.toFile().length()).sum();
+        } else {
+            totalBytes += addedBytes;
+        }
+        if (totalBytes <= MAX_BYTES) {
+            return;
+        }
+        List<Path> thumbnails = listThumbnails();
+        thumbnails.sort(Comparator.comparingLong(path -> path.toFile().lastModified()));
+        for (Path path : thumbnails) {
+            if (totalBytes <= MAX_BYTES * 9 / 10) {
+                break;
+            }
+            long size = path.toFile().length();
+            if (Files.deleteIfExists(path)) {
+                totalBytes -= size;
+            }
+        }
+    }
+
+    private static List<Path> listThumbnails() throws IOException {
+        try (Stream<Path> files = Files.list(STORE_DIR)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".png"))
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package org.myself.iamreviewing.component.previewer;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.embed.swing.SwingFXUtils;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.TextAlignment;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 分块金字塔方式的大图查看器
+ * 第n级为原图按2^n降采样的结果，每级切成TILE_SIZE见方的块，只用ImageReader的区域读取和降采样
+ * 解码与当前视野相交、级别与当前缩放匹配的块，从不解码完整分辨率的位图；
+ * 解码结果放在有上限的ImageTileCache中，细节块未就绪时先显示整图的最低一级作为底图。
+ * 支持拖动平移、滚轮缩放和旋转
+ */
+public class TiledImageViewer extends Region {
+
+    // 每块在所在级别中的边长
+    private static final int TILE_SIZE = 512;
+    // 最大放大倍数
+    private static final double MAX_SCALE = 8;
+    // 每次滚轮的缩放系数
+    private static final double WHEEL_ZOOM_FACTOR = 1.1;
+    private static final Color BACKGROUND = Color.web("#f0f0f0");
+
+    private final File file;
+    private final Canvas canvas = new Canvas();
+    private final ReadOnlyDoubleWrapper scale = new ReadOnlyDoubleWrapper(1);
+
+    // 原图尺寸和最低一级（整图只有一块）的级别，读取图片头后在JavaFX线程中设置
+    private int imageWidth;
+    private int imageHeight;
+    private int overviewLevel;
+    private String message = "正在加载图片...";
+
+    // 视野中心对应的原图坐标
+    private double centerX;
+    private double centerY;
+    // 顺时针旋转的90度次数
+    private int quarterTurns;
+    // 是否随窗口大小自动适应
+    private boolean fitting = true;
+
+    // 拖动平移时上一次鼠标位置
+    private double dragX;
+    private double dragY;
+
+    // 当前视野需要但尚未缓存的块，解码线程据此跳过已经移出视野的块
+    private final Set<Tile> wantedTiles = ConcurrentHashMap.newKeySet();
+    // 已提交解码的块，避免重复提交
+    private final Set<Tile> queuedTiles = ConcurrentHashMap.newKeySet();
+
+    // 在后台读取图片并解码块，reader只在这个线程中访问
+    private final ExecutorService decoder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "image-tile-decoder");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ImageInputStream input;
+    private ImageReader reader;
+    private int sourceWidth;
+    private int sourceHeight;
+
+    private record Tile(int level, int column, int row) {
+    }
+
+    /**
+     * @param file 图片文件
+     */
+    public TiledImageViewer(File file) {
+        this.file = file;
+        getChildren().add(canvas);
+        setStyle("-fx-background-color: #f0f0f0;");
+        setMinSize(0, 0);
+
+        setOnMousePressed(e -> {
+            dragX = e.getX();
+            dragY = e.getY();
+        });
+        setOnMouseDragged(e -> {
+            panBy(e.getX() - dragX, e.getY() - dragY);
+            dragX = e.getX();
+            dragY = e.getY();
+        });
+        setOnScroll(e -> {
+            if (e.getDeltaY() != 0) {
+                double factor = Math.pow(WHEEL_ZOOM_FACTOR, e.getDeltaY() / 40);
+                zoomAt(scale.get() * factor, e.getX(), e.getY());
+            }
+            e.consume();
+        });
+
+        decoder.submit(this::openImage);
+    }
+
+    /**
+     * 当前缩放比例，1表示原图一个像素对应屏幕一个像素
+     */
+    public ReadOnlyDoubleProperty scaleProperty() {
+        return scale.getReadOnlyProperty();
+    }
+
+    /**
+     * 是否处于适应窗口模式
+     */
+    public boolean isFitting() {
+        return fitting;
+    }
+
+    /**
+     * 以视野中心为基准缩放到指定比例
+     */
+    public void setZoom(double zoom) {
+        zoomAt(zoom, getWidth() / 2, getHeight() / 2);
+    }
+
+    /**
+     * 缩放到整图恰好放入视野，之后窗口大小变化时自动保持
+     */
+    public void fitToView() {
+        fitting = true;
+        if (imageWidth > 0) {
+            centerX = imageWidth / 2.0;
+            centerY = imageHeight / 2.0;
+            scale.set(fitScale());
+        }
+        redraw();
+    }
+
+    /**
+     * 顺时针旋转90度
+     */
+    public void rotate() {
+        quarterTurns = (quarterTurns + 1) % 4;
+        if (fitting) {
+            fitToView();
+        } else {
+            redraw();
+        }
+    }
+
+    /**
+     * 停止解码并关闭图片，查看器关闭时调用
+     */
+    public void dispose() {
+        wantedTiles.clear();
+        decoder.submit(this::closeImage);
+        decoder.shutdown();
+    }
+
+    @Override
+    protected void layoutChildren() {
+        canvas.setWidth(getWidth());
+        canvas.setHeight(getHeight());
+        if (fitting) {
+            fitToView();
+        } else {
+            redraw();
+        }
+    }
+
+    // 在解码线程中读取图片尺寸，不解码像素
+    private void openImage() {
+        try {
+            input = ImageIO.createImageInputStream(file);
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("不支持的图片格式");
+            }
+            reader = readers.next();
+            // 需要反复按区域读取，不能只向前读
+            reader.setInput(input, false, true);
+            int width = reader.getWidth(0);
+            int height = reader.getHeight(0);
+            sourceWidth = width;
+            sourceHeight = height;
+            Platform.runLater(() -> {
+                imageWidth = width;
+                imageHeight = height;
+                int level = 0;
+                while (Math.max(width, height) > (TILE_SIZE << level)) {
+                    level++;
+                }
+                overviewLevel = level;
+                message = null;
+                fitToView();
+            });
+        } catch (IOException e) {
+            System.err.println("读取图片失败: " + e.getMessage());
+            Platform.runLater(() -> {
+                message = "加载图片失败: " + e.getMessage();
+                redraw();
+            });
+        }
+    }
+
+    private void closeImage() {
+        if (reader != null) {
+            reader.dispose();
+        }
+        if (input != null) {
+            try {
+                input.close();
+            } catch (IOException e) {
+                System.err.println("关闭图片失败: " + e.getMessage());
+            }
+        }
+    }
+
+    // 在解码线程中按区域和降采样读取一块，块已移出视野时跳过
+    private void decodeTile(Tile tile) {
+        try {
+            if (!wantedTiles.contains(tile) || reader == null) {
+                return;
+            }
+            int span = TILE_SIZE << tile.level();
+            int x = tile.column() * span;
+            int y = tile.row() * span;
+            int subsampling = 1 << tile.level();
+
+            ImageReadParam param = reader.getDefaultReadParam();
+            param.setSourceRegion(new Rectangle(x, y,
+                    Math.min(span, sourceWidth - x), Math.min(span, sourceHeight - y)));
+            param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+            BufferedImage bufferedImage = reader.read(0, param);
+            ImageTileCache.put(file, tile.level(), tile.column(), tile.row(),
+                    SwingFXUtils.toFXImage(bufferedImage, null));
+            Platform.runLater(this::redraw);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("解码图片块失败: " + e.getMessage());
+        } finally {
+            queuedTiles.remove(tile);
+        }
+    }
+
+    private void panBy(double dx, double dy) {
+        if (imageWidth <= 0) {
+            return;
+        }
+        fitting = false;
+        double[] delta = toImageVector(dx, dy);
+        centerX = clamp(centerX - delta[0], 0, imageWidth);
+        centerY = clamp(centerY - delta[1], 0, imageHeight);
+        redraw();
+    }
+
+    // 缩放时保持(viewX, viewY)处的图像点不动
+    private void zoomAt(double zoom, double viewX, double viewY) {
+        if (imageWidth <= 0) {
+            return;
+        }
+        double newScale = clamp(zoom, Math.min(fitScale(), 1) / 2, MAX_SCALE);
+        double[] offset = toImageVector(viewX - getWidth() / 2, viewY - getHeight() / 2);
+        double anchorX = centerX + offset[0];
+        double anchorY = centerY + offset[1];
+
+        fitting = false;
+        scale.set(newScale);
+        offset = toImageVector(viewX - getWidth() / 2, viewY - getHeight() / 2);
+        centerX = clamp(anchorX - offset[0], 0, imageWidth);
+        centerY = clamp(anchorY - offset[1], 0, imageHeight);
+        redraw();
+    }
+
+    // 把屏幕上的位移换算成原图坐标下的位移
+    private double[] toImageVector(double dx, double dy) {
+        double x = dx;
+        double y = dy;
+        for (int i = 0; i < quarterTurns; i++) {
+            // 逆时针旋转90度
+            double t = x;
+            x = y;
+            y = -t;
+        }
+        return new double[]{x / scale.get(), y / scale.get()};
+    }
+
+    private double fitScale() {
+        boolean swapped = quarterTurns % 2 == 1;
+        double width = swapped ? imageHeight : imageWidth;
+        double height = swapped ? imageWidth : imageHeight;
+        if (getWidth() <= 0 || getHeight() <= 0) {
+            return 1;
+        }
+        return Math.min(getWidth() / width, getHeight() / height);
+    }
+
+    // 当前缩放下使用的级别：块的像素不少于显示所需的像素
+    private int levelFor(double currentScale) {
+        int level = 0;
+        while (level < overviewLevel && currentScale * (1 << (level + 1)) <= 1) {
+            level++;
+        }
+        return level;
+    }
+
+    private void redraw() {
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.setFill(BACKGROUND);
+        gc.fillRect(0, 0, width, height);
+
+        if (imageWidth <= 0) {
+            if (message != null) {
+                gc.setFill(Color.GRAY);
+                gc.setTextAlign(TextAlignment.CENTER);
+                gc.setTextBaseline(VPos.CENTER);
+                gc.fillText(message, width / 2, height / 2);
+            }
+            return;
+        }
+
+        double currentScale = scale.get();
+        boolean swapped = quarterTurns % 2 == 1;
+        double halfWidth = (swapped ? height : width) / 2 / currentScale;
+        double halfHeight = (swapped ? width : height) / 2 / currentScale;
+        double left = Math.max(0, centerX - halfWidth);
+        double top = Math.max(0, centerY - halfHeight);
+        double right = Math.min(imageWidth, centerX + halfWidth);
+        double bottom = Math.min(imageHeight, centerY + halfHeight);
+
+        gc.save();
+        gc.translate(width / 2, height / 2);
+        gc.rotate(90 * quarterTurns);
+        gc.scale(currentScale, currentScale);
+        gc.translate(-centerX, -centerY);
+        gc.setImageSmoothing(true);
+
+        List<Tile> missing = new ArrayList<>();
+        // 整图的最低一级作为底图，细节块解码完成前先显示它
+        drawTile(gc, new Tile(overviewLevel, 0, 0), missing);
+
+        int level = levelFor(currentScale);
+        if (level < overviewLevel && right > left && bottom > top) {
+            int span = TILE_SIZE << level;
+            for (int row = (int) (top / span); row <= (int) ((bottom - 1) / span); row++) {
+                for (int column = (int) (left / span); column <= (int) ((right - 1) / span); column++) {
+                    drawTile(gc, new Tile(level, column, row), missing);
+                }
+            }
+        }
+        gc.restore();
+
+        requestTiles(missing);
+    }
+
+    private void drawTile(GraphicsContext gc, Tile tile, List<Tile> missing) {
+        Image image = ImageTileCache.get(file, tile.level(), tile.column(), tile.row());
+        if (image == null) {
+            missing.add(tile);
+            return;
+        }
+        int span = TILE_SIZE << tile.level();
+        double x = (double) tile.column() * span;
+        double y = (double) tile.row() * span;
+        gc.drawImage(image, x, y, Math.min(span, imageWidth - x), Math.min(span, imageHeight - y));
+    }
+
+    // 底图优先，其余按离视野中心的距离提交解码
+    private void requestTiles(List<Tile> missing) {
+        wantedTiles.clear();
+        wantedTiles.addAll(missing);
+        missing.sort(Comparator.comparingDouble(tile -> {
+            if (tile.level() == overviewLevel) {
+                return -1;
+            }
+            double span = TILE_SIZE << tile.level();
+            double dx = (tile.column() + 0.5) * span - centerX;
+            double dy = (tile.row() + 0.5) * span - centerY;
+            return dx * dx + dy * dy;
+        }));
+        for (Tile tile : missing) {
+            if (!decoder.isShutdown() && queuedTiles.add(tile)) {
+                decoder.submit(() -> decodeTile(tile));
+            }
+        }
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
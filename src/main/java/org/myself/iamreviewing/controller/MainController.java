@@ -1,5 +1,7 @@
 package org.myself.iamreviewing.controller;
 
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -9,6 +11,9 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.VBox;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import javafx.util.Duration;
+import org.myself.iamreviewing.async.LatestRequest;
+import org.myself.iamreviewing.async.ServiceExecutor;
 import org.myself.iamreviewing.component.AttachmentPreview;
 import org.myself.iamreviewing.domain.dto.AttachmentDTO;
 import org.myself.iamreviewing.domain.dto.PointDTO;
@@ -16,6 +21,7 @@ import org.myself.iamreviewing.domain.enums.DifficultyLevel;
 import org.myself.iamreviewing.domain.enums.FileType;
 import org.myself.iamreviewing.domain.enums.Memoried;
 import org.myself.iamreviewing.domain.vo.AttachmentVO;
+import org.myself.iamreviewing.domain.vo.PointSummaryVO;
 import org.myself.iamreviewing.domain.vo.PointVO;
 import org.myself.iamreviewing.service.AttachmentService;
 import org.myself.iamreviewing.service.PointService;
@@ -36,6 +42,15 @@ public class MainController {
     @Autowired
     private AttachmentService attachmentService;
 
+    @Autowired
+    private ServiceExecutor serviceExecutor;
+
+    // 知识点列表、分类、选中知识点和附件列表的后台请求，各自只保留最新一次结果
+    private LatestRequest<List<PointSummaryVO>> listRequest;
+    private LatestRequest<List<String>> categoryRequest;
+    private LatestRequest<PointVO> pointRequest;
+    private LatestRequest<List<AttachmentVO>> attachmentRequest;
+
     // 当前选中的知识点
     private PointVO currentPoint;
     // 当前选中的附件
@@ -43,13 +58,35 @@ public class MainController {
     // 附件预览组件
     private AttachmentPreview attachmentPreview;
 
+    // 知识点列表每页加载的数量
+    private static final int PAGE_SIZE = 200;
+    // 距离列表末尾还剩多少行时加载下一页
+    private static final int PAGE_PREFETCH = 20;
+    // 当前分页的分类条件，null表示全部
+    private String pagedCategory;
+    // 已加载的最后一条知识点id，作为下一页的游标
+    private Long lastLoadedId;
+    // 是否还有下一页
+    private boolean hasMorePages;
+    // 是否已安排加载下一页，避免多个单元格重复触发
+    private boolean nextPageScheduled;
+
+    // 输入停顿多久后才执行搜索
+    private static final Duration SEARCH_DELAY = Duration.millis(300);
+    // 搜索框输入防抖
+    private PauseTransition searchDebounce;
+    // 当前列表展示的搜索关键字，null表示列表展示的不是搜索结果
+    private String lastKeyword;
+    // 上一次搜索结果的id，新关键字在旧关键字基础上追加时只在这些结果中继续搜索
+    private List<Long> lastResultIds;
+
     // FXML组件
     @FXML
     private TextField searchField;
     @FXML
     private ComboBox<String> categoryFilter;
     @FXML
-    private ListView<PointVO> pointListView;
+    private ListView<PointSummaryVO> pointListView;
     @FXML
     private Button deletePointBtn;
     @FXML
@@ -94,6 +131,10 @@ public class MainController {
     // 初始化方法
     @FXML
     public void initialize() {
+        listRequest = new LatestRequest<>(serviceExecutor);
+        categoryRequest = new LatestRequest<>(serviceExecutor);
+        pointRequest = new LatestRequest<>(serviceExecutor);
+        attachmentRequest = new LatestRequest<>(serviceExecutor);
         initializeControls();
         initializeAttachmentPreview();
         initializeData();
@@ -105,15 +146,28 @@ public class MainController {
         difficultyCombo.getItems().addAll(DifficultyLevel.values());
         memoriedCombo.getItems().addAll(Memoried.values());
 
+        // 边输入边搜索，停顿SEARCH_DELAY后才真正查询
+        searchDebounce = new PauseTransition(SEARCH_DELAY);
+        searchDebounce.setOnFinished(e -> runSearch(false));
+        searchField.textProperty().addListener((obs, oldText, newText) -> searchDebounce.playFromStart());
+
         // 设置知识点列表的单元格工厂
         pointListView.setCellFactory(param -> new ListCell<>() {
             @Override
-            protected void updateItem(PointVO item, boolean empty) {
+            protected void updateItem(PointSummaryVO item, boolean empty) {
                 super.updateItem(item, empty);
                 if (empty || item == null) {
                     setText(null);
                 } else {
-                    setText(item.getName() + " - " + item.getCategory() + " (" + item.getDifficultyLevel().getDesc() + ")");
+                    String text = item.getName() + " - " + item.getCategory() + " (" + item.getDifficultyLevel().getDesc() + ")";
+                    // 附件内容命中时在第二行显示命中位置
+                    setText(item.getMatchHint() == null ? text : text + "\n    " + item.getMatchHint());
+                    // 滚动到接近末尾时加载下一页
+                    if (hasMorePages && !nextPageScheduled
+                            && getIndex() >= pointListView.getItems().size() - PAGE_PREFETCH) {
+                        nextPageScheduled = true;
+                        Platform.runLater(MainController.this::loadNextPage);
+                    }
                 }
             }
         });
@@ -143,43 +197,104 @@ public class MainController {
     private void initializeData() {
         loadAllPoints();
         loadCategories();
+        attachmentService.startContentIndexing();
     }
 
     // 加载所有知识点
     @FXML
     private void loadAllPoints() {
-        // 调用service层方法加载所有知识点，返回PointVO列表
-        List<PointVO> pointVOs = pointService.getAllPoints();
-        pointListView.getItems().setAll(pointVOs);
+        loadFirstPage(null);
+    }
+
+    // 从第一页开始分页加载知识点摘要，附件在选中知识点时再加载
+    private void loadFirstPage(String category) {
+        lastKeyword = null;
+        lastResultIds = null;
+        pagedCategory = category;
+        lastLoadedId = null;
+        hasMorePages = true;
+        pointListView.getItems().clear();
+        loadNextPage();
+    }
+
+    // 按id游标在后台加载下一页，追加到列表末尾
+    private void loadNextPage() {
+        nextPageScheduled = false;
+        if (!hasMorePages) {
+            return;
+        }
+        // 页面返回前保持已安排状态，避免重复请求同一页
+        nextPageScheduled = true;
+        String category = pagedCategory;
+        Long afterId = lastLoadedId;
+        listRequest.submit(() -> pointService.pageSummaries(category, afterId, PAGE_SIZE), page -> {
+            nextPageScheduled = false;
+            hasMorePages = page.size() == PAGE_SIZE;
+            if (!page.isEmpty()) {
+                lastLoadedId = page.get(page.size() - 1).getId();
+                pointListView.getItems().addAll(page);
+            }
+        }, e -> {
+            nextPageScheduled = false;
+            showError("加载知识点失败: " + e.getMessage());
+        });
     }
 
     // 加载所有分类
     private void loadCategories() {
-        // 调用service层方法加载所有分类
-        List<String> categories = pointService.getAllCategories();
-        categoryFilter.getItems().clear();
-        categoryFilter.getItems().add("全部");
-        categoryFilter.getItems().addAll(categories);
-        categoryFilter.getSelectionModel().selectFirst();
+        // 在后台调用service层方法加载所有分类
+        categoryRequest.submit(pointService::getAllCategories, categories -> {
+            categoryFilter.getItems().clear();
+            categoryFilter.getItems().add("全部");
+            categoryFilter.getItems().addAll(categories);
+            categoryFilter.getSelectionModel().selectFirst();
+        }, e -> showError("加载分类失败: " + e.getMessage()));
     }
 
-    // 搜索知识点
+    // 搜索知识点，回车或点击搜索按钮时立即执行
     @FXML
     private void searchPoints() {
-        String keyword = searchField.getText();
-        List<PointVO> pointVOS = pointService.searchByKeyword(keyword);
-        pointListView.getItems().setAll(pointVOS);
+        searchDebounce.stop();
+        runSearch(true);
+    }
+
+    // 执行搜索，force为false时关键字没有变化则不重复查询
+    private void runSearch(boolean force) {
+        String keyword = searchField.getText() == null ? "" : searchField.getText().trim();
+        if (keyword.isEmpty()) {
+            // 清空关键字时回到完整列表，列表本来就不是搜索结果时无需重新加载
+            if (force || lastKeyword != null) {
+                loadAllPoints();
+            }
+            return;
+        }
+        if (!force && keyword.equals(lastKeyword)) {
+            return;
+        }
+        // 关键字只是在上一次的基础上追加，结果必然是上一次结果的子集，只在其中细化
+        List<Long> candidateIds = !force && lastKeyword != null && keyword.startsWith(lastKeyword)
+                && lastResultIds != null && !lastResultIds.isEmpty() ? lastResultIds : null;
+        lastKeyword = keyword;
+        lastResultIds = null;
+        // 搜索结果一次性返回，不再分页；新的搜索会取消尚未返回的旧搜索
+        hasMorePages = false;
+        listRequest.submit(() -> pointService.searchSummaries(keyword, candidateIds), summaries -> {
+            lastResultIds = summaries.stream().map(PointSummaryVO::getId).toList();
+            pointListView.getItems().setAll(summaries);
+        }, e -> {
+            lastKeyword = null;
+            showError("搜索失败: " + e.getMessage());
+        });
     }
 
     // 按分类筛选
     @FXML
     private void filterByCategory() {
         String category = categoryFilter.getValue();
-        if ("全部".equals(category)) {
+        if (category == null || "全部".equals(category)) {
             loadAllPoints();
         } else {
-            List<PointVO> points = pointService.getByCategory(category);
-            pointListView.getItems().setAll(points);
+            loadFirstPage(category);
         }
     }
 
@@ -188,6 +303,8 @@ public class MainController {
     private void addPoint() {
         clearForm();
         currentPoint = null;
+        // 加载失败时保存按钮被禁用，新建知识点时重新启用
+        savePointBtn.setDisable(false);
         pointNameField.requestFocus();
     }
 
@@ -209,26 +326,27 @@ public class MainController {
         pointDTO.setDifficultyLevel(difficultyCombo.getValue()== null ? DifficultyLevel.THREE : difficultyCombo.getValue());
         pointDTO.setMemoried(memoriedCombo.getValue()== null ? Memoried.NO : memoriedCombo.getValue());
 
-        PointVO savedPoint;
-        // 调用service层方法保存或更新知识点
-        if (currentPoint != null) {
-            // 更新知识点
-            savedPoint = pointService.updatePoint(currentPoint.getId(), pointDTO);
-        } else {
-            // 创建新知识点
-            savedPoint = pointService.createPoint(pointDTO);
-        }
-
-        if (savedPoint != null) {
-            showSuccess("知识点保存成功");
-            loadAllPoints();
-            // 更新分类列表，确保新分类能显示在选择框中
-            loadCategories();
-            // 更新当前选中的知识点
-            currentPoint = savedPoint;
-        } else {
-            showError("知识点保存失败");
-        }
+        // 在后台调用service层方法保存或更新知识点，保存期间禁用按钮防止重复提交
+        Long pointId = currentPoint != null ? currentPoint.getId() : null;
+        savePointBtn.setDisable(true);
+        serviceExecutor.run(() -> pointId != null
+                ? pointService.updatePoint(pointId, pointDTO)
+                : pointService.createPoint(pointDTO), savedPoint -> {
+            savePointBtn.setDisable(false);
+            if (savedPoint != null) {
+                showSuccess("知识点保存成功");
+                loadAllPoints();
+                // 更新分类列表，确保新分类能显示在选择框中
+                loadCategories();
+                // 更新当前选中的知识点
+                currentPoint = savedPoint;
+            } else {
+                showError("知识点保存失败");
+            }
+        }, e -> {
+            savePointBtn.setDisable(false);
+            showError("知识点保存失败: " + e.getMessage());
+        });
     }
 
     // 删除知识点
@@ -242,16 +360,23 @@ public class MainController {
 
             Optional<ButtonType> result = alert.showAndWait();
             if (result.isPresent() && result.get() == ButtonType.OK) {
-                // 调用service层方法删除知识点
-                boolean deleted = pointService.removeById(currentPoint.getId());
-                if (deleted) {
-                    showSuccess("知识点删除成功");
-                    clearForm();
-                    loadAllPoints();
-                    currentPoint = null;
-                } else {
-                    showError("知识点删除失败");
-                }
+                // 在后台调用service层方法删除知识点
+                Long pointId = currentPoint.getId();
+                deletePointBtn.setDisable(true);
+                serviceExecutor.run(() -> pointService.removeById(pointId), deleted -> {
+                    if (deleted) {
+                        showSuccess("知识点删除成功");
+                        clearForm();
+                        loadAllPoints();
+                        currentPoint = null;
+                    } else {
+                        deletePointBtn.setDisable(false);
+                        showError("知识点删除失败");
+                    }
+                }, e -> {
+                    deletePointBtn.setDisable(false);
+                    showError("知识点删除失败: " + e.getMessage());
+                });
             }
         }
     }
@@ -259,7 +384,35 @@ public class MainController {
     // 知识点列表选择变化
     @FXML
     private void onPointSelectionChanged() {
-        currentPoint = pointListView.getSelectionModel().getSelectedItem();
+        PointSummaryVO selected = pointListView.getSelectionModel().getSelectedItem();
+        attachmentRequest.cancel();
+        // 加载完成前不允许保存或删除，避免操作到上一个知识点
+        currentPoint = null;
+        deletePointBtn.setDisable(true);
+        if (selected == null) {
+            pointRequest.cancel();
+            return;
+        }
+        savePointBtn.setDisable(true);
+        // 选中时才在后台加载完整的知识点和附件
+        // 加载失败或知识点已被删除时清空表单，保存按钮保持禁用，避免把上一个知识点的内容另存为新知识点
+        pointRequest.submit(() -> pointService.getPointById(selected.getId()), point -> {
+            if (point == null) {
+                clearForm();
+                showError("知识点不存在，可能已被删除");
+                return;
+            }
+            savePointBtn.setDisable(false);
+            showPoint(point);
+        }, e -> {
+            clearForm();
+            showError("加载知识点失败: " + e.getMessage());
+        });
+    }
+
+    // 将加载好的知识点填充到表单
+    private void showPoint(PointVO point) {
+        currentPoint = point;
         if (currentPoint != null) {
             // 填充表单数据
             pointNameField.setText(currentPoint.getName());
@@ -269,8 +422,8 @@ public class MainController {
             memoriedCombo.setValue(currentPoint.getMemoried());
             createDateLabel.setText(currentPoint.getCreateDate().toString());
 
-            // 加载附件列表
-            loadAttachments();
+            // 附件已随知识点一起加载
+            attachmentListView.getItems().setAll(currentPoint.getAttachmentVOS());
 
             // 启用删除按钮
             deletePointBtn.setDisable(false);
@@ -282,8 +435,8 @@ public class MainController {
     // 查看知识点详情
     @FXML
     private void viewPointDetail() {
-        currentPoint = pointListView.getSelectionModel().getSelectedItem();
-        if (currentPoint != null) {
+        PointSummaryVO selected = pointListView.getSelectionModel().getSelectedItem();
+        if (selected != null) {
             try {
                 // 加载知识点详情页面
                 FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/pointDetail.fxml"));
@@ -295,11 +448,11 @@ public class MainController {
                 
                 // 获取控制器
                 PointDetailController controller = loader.getController();
-                controller.setPointId(currentPoint.getId());
+                controller.setPointId(selected.getId());
                 
                 // 创建新窗口
                 Stage stage = new Stage();
-                stage.setTitle("知识点详情 - " + currentPoint.getName());
+                stage.setTitle("知识点详情 - " + selected.getName());
                 // 增加窗口大小，确保内容有足够空间显示
                 stage.setScene(new Scene(root, 1200, 800));
                 stage.setMinWidth(1000);
@@ -366,14 +519,21 @@ public class MainController {
             FileType fileType = getFileTypeFromExtension(extension);
             attachmentDTO.setFileType(fileType);
 
-            // 调用service层方法保存附件
-            boolean saved = attachmentService.addAttachment(currentPoint.getId(), attachmentDTO);
-            if (saved) {
-                showSuccess("附件上传成功");
-                loadAttachments();
-            } else {
-                showError("附件上传失败");
-            }
+            // 在后台调用service层方法保存附件
+            Long pointId = currentPoint.getId();
+            uploadAttachBtn.setDisable(true);
+            serviceExecutor.run(() -> attachmentService.addAttachment(pointId, attachmentDTO), saved -> {
+                uploadAttachBtn.setDisable(false);
+                if (saved) {
+                    showSuccess("附件上传成功");
+                    loadAttachments();
+                } else {
+                    showError("附件上传失败");
+                }
+            }, e -> {
+                uploadAttachBtn.setDisable(false);
+                showError("附件上传失败: " + e.getMessage());
+            });
         }
     }
 
@@ -388,15 +548,22 @@ public class MainController {
 
             Optional<ButtonType> result = alert.showAndWait();
             if (result.isPresent() && result.get() == ButtonType.OK) {
-                // 调用service层方法删除附件
-                boolean deleted = attachmentService.removeById(currentAttachment.getId());
-                if (deleted) {
-                    showSuccess("附件删除成功");
-                    loadAttachments();
-                    currentAttachment = null;
-                } else {
-                    showError("附件删除失败");
-                }
+                // 在后台调用service层方法删除附件
+                Long attachmentId = currentAttachment.getId();
+                deleteAttachBtn.setDisable(true);
+                serviceExecutor.run(() -> attachmentService.removeById(attachmentId), deleted -> {
+                    if (deleted) {
+                        showSuccess("附件删除成功");
+                        loadAttachments();
+                        currentAttachment = null;
+                    } else {
+                        deleteAttachBtn.setDisable(false);
+                        showError("附件删除失败");
+                    }
+                }, e -> {
+                    deleteAttachBtn.setDisable(false);
+                    showError("附件删除失败: " + e.getMessage());
+                });
             }
         }
     }
@@ -437,10 +604,13 @@ public class MainController {
     // 加载附件列表
     private void loadAttachments() {
         if (currentPoint != null) {
-            // 调用service层方法加载附件列表，返回AttachmentVO列表
-            List<AttachmentVO> attachmentVOs = attachmentService.getAttachmentsByPointId(currentPoint.getId());
-            attachmentListView.getItems().setAll(attachmentVOs);
+            // 在后台调用service层方法加载附件列表，返回AttachmentVO列表
+            Long pointId = currentPoint.getId();
+            attachmentRequest.submit(() -> attachmentService.getAttachmentsByPointId(pointId),
+                    attachmentVOs -> attachmentListView.getItems().setAll(attachmentVOs),
+                    e -> showError("加载附件失败: " + e.getMessage()));
         } else {
+            attachmentRequest.cancel();
             attachmentListView.getItems().clear();
         }
     }
@@ -9,37 +9,38 @@ import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
 import javafx.scene.layout.Priority;
-import javafx.scene.media.Media;
-import javafx.scene.media.MediaPlayer;
-import javafx.scene.media.MediaView;
 import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
 import javafx.collections.ObservableList;
-import javafx.embed.swing.SwingFXUtils;
-import javafx.scene.paint.Color;
-import javafx.scene.text.Text;
-import javafx.scene.text.TextFlow;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.rendering.PDFRenderer;
-import org.apache.poi.xwpf.usermodel.XWPFDocument;
-import org.apache.poi.xwpf.usermodel.XWPFParagraph;
-import java.awt.image.BufferedImage;
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 
+import org.myself.iamreviewing.async.LatestRequest;
+import org.myself.iamreviewing.component.LazyMediaPlayer;
+import org.myself.iamreviewing.component.previewer.CodePreviewer;
+import org.myself.iamreviewing.component.previewer.DocxPreviewer;
+import org.myself.iamreviewing.component.previewer.ImagePreviewer;
+import org.myself.iamreviewing.component.previewer.PdfPageViewer;
+import org.myself.iamreviewing.component.previewer.PdfPreviewer;
+import org.myself.iamreviewing.component.previewer.PreviewDriver;
+import org.myself.iamreviewing.component.previewer.PreviewScheduler;
+import org.myself.iamreviewing.component.previewer.Previewer;
+import org.myself.iamreviewing.component.previewer.CodeLineView;
+import org.myself.iamreviewing.component.previewer.HighlightedCode;
+import org.myself.iamreviewing.component.previewer.MappedTextFile;
+import org.myself.iamreviewing.component.previewer.TextLineView;
+import org.myself.iamreviewing.component.previewer.TextPreviewer;
+import org.myself.iamreviewing.async.ServiceExecutor;
 import org.myself.iamreviewing.domain.enums.FileType;
 import org.myself.iamreviewing.domain.vo.AttachmentVO;
+import org.myself.iamreviewing.domain.vo.PointSummaryVO;
 import org.myself.iamreviewing.domain.vo.PointVO;
-import org.myself.iamreviewing.service.AttachmentService;
 import org.myself.iamreviewing.service.PointService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 
 import java.io.File;
+import java.nio.charset.Charset;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 @Controller
 public class PointDetailController {
@@ -48,100 +49,27 @@ public class PointDetailController {
     private PointService pointService;
 
     @Autowired
-    private AttachmentService attachmentService;
+    private ServiceExecutor serviceExecutor;
+
+    // 知识点详情的后台请求，快速切换时只显示最后一次的结果
+    private LatestRequest<PointDetail> detailRequest;
+
+    /**
+     * 后台一次性加载的详情数据：知识点（含附件）及其相邻知识点
+     */
+    private record PointDetail(PointVO point, PointSummaryVO prev, PointSummaryVO next) {
+    }
 
     // 当前知识点ID
     private Long pointId;
     // 当前窗口
     private Stage currentStage;
-    // 所有知识点列表，用于切换
-    private List<PointVO> allPoints;
-    // 当前知识点在列表中的索引
-    private int currentPointIndex;
+    // 当前知识点附件预览的取消标记，切换知识点或关闭窗口时取消
+    private PreviewScheduler.Token attachmentsToken = new PreviewScheduler.Token();
+    // 上一个、下一个知识点，用于切换，按id相邻查询得到
+    private PointSummaryVO prevPoint;
+    private PointSummaryVO nextPoint;
     
-    // 语法高亮规则
-    private static final Map<String, LanguageSyntax> LANGUAGE_SYNTAX_MAP = new HashMap<>();
-    
-    static {
-        // 初始化语言语法规则
-        initLanguageSyntax();
-    }
-    
-    /**
-     * 初始化语言语法规则
-     */
-    private static void initLanguageSyntax() {
-        // C语言关键字
-        Set<String> cKeywords = new HashSet<>(Arrays.asList(
-                "auto", "break", "case", "char", "const", "continue", "default", "do",
-                "double", "else", "enum", "extern", "float", "for", "goto", "if",
-                "int", "long", "register", "return", "short", "signed", "sizeof", "static",
-                "struct", "switch", "typedef", "union", "unsigned", "void", "volatile", "while"
-        ));
-        
-        // C++语言关键字（包含C关键字）
-        Set<String> cppKeywords = new HashSet<>(cKeywords);
-        cppKeywords.addAll(Arrays.asList(
-                "alignas", "alignof", "and", "and_eq", "asm", "atomic_cancel", "atomic_commit",
-                "atomic_noexcept", "auto", "bitand", "bitor", "bool", "break", "case", "catch",
-                "char", "char8_t", "char16_t", "char32_t", "class", "compl", "concept", "const",
-                "consteval", "constexpr", "constinit", "const_cast", "continue", "co_await", "co_return",
-                "co_yield", "decltype", "default", "delete", "do", "double", "dynamic_cast", "else",
-                "enum", "explicit", "export", "extern", "false", "float", "for", "friend",
-                "goto", "if", "inline", "int", "long", "mutable", "namespace", "new",
-                "noexcept", "not", "not_eq", "nullptr", "operator", "or", "or_eq", "private",
-                "protected", "public", "reflexpr", "register", "reinterpret_cast", "requires", "return",
-                "short", "signed", "sizeof", "static", "static_assert", "static_cast", "struct", "switch",
-                "synchronized", "template", "this", "thread_local", "throw", "true", "try", "typedef",
-                "typeid", "typename", "union", "unsigned", "using", "virtual", "void", "volatile",
-                "wchar_t", "while", "xor", "xor_eq"
-        ));
-        
-        // Java语言关键字
-        Set<String> javaKeywords = new HashSet<>(Arrays.asList(
-                "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char",
-                "class", "const", "continue", "default", "do", "double", "else", "enum",
-                "extends", "final", "finally", "float", "for", "goto", "if", "implements",
-                "import", "instanceof", "int", "interface", "long", "native", "new", "package",
-                "private", "protected", "public", "return", "short", "static", "strictfp", "super",
-                "switch", "synchronized", "this", "throw", "throws", "transient", "try", "void",
-                "volatile", "while", "true", "false", "null"
-        ));
-        
-        // Python语言关键字
-        Set<String> pythonKeywords = new HashSet<>(Arrays.asList(
-                "False", "None", "True", "and", "as", "assert", "async", "await", "break",
-                "class", "continue", "def", "del", "elif", "else", "except", "finally", "for",
-                "from", "global", "if", "import", "in", "is", "lambda", "nonlocal", "not",
-                "or", "pass", "raise", "return", "try", "while", "with", "yield"
-        ));
-        
-        // 初始化语言语法映射
-        LANGUAGE_SYNTAX_MAP.put(".c", new LanguageSyntax(cKeywords, "//", "/*", "*/"));
-        LANGUAGE_SYNTAX_MAP.put(".h", new LanguageSyntax(cKeywords, "//", "/*", "*/"));
-        LANGUAGE_SYNTAX_MAP.put(".cpp", new LanguageSyntax(cppKeywords, "//", "/*", "*/"));
-        LANGUAGE_SYNTAX_MAP.put(".cxx", new LanguageSyntax(cppKeywords, "//", "/*", "*/"));
-        LANGUAGE_SYNTAX_MAP.put(".cc", new LanguageSyntax(cppKeywords, "//", "/*", "*/"));
-        LANGUAGE_SYNTAX_MAP.put(".java", new LanguageSyntax(javaKeywords, "//", "/*", "*/"));
-        LANGUAGE_SYNTAX_MAP.put(".py", new LanguageSyntax(pythonKeywords, "#", null, null));
-        LANGUAGE_SYNTAX_MAP.put(".pyw", new LanguageSyntax(pythonKeywords, "#", null, null));
-    }
-
-    /**
-         * 语言语法规则类
-         */
-        private record LanguageSyntax(Set<String> keywords, String singleLineComment, String multiLineCommentStart,
-                                      String multiLineCommentEnd) {
-
-    }
-
-    /**
-         * 文本片段类
-         */
-        private record TextSegment(String text, Color color) {
-
-    }
-
     // FXML组件
     @FXML
     private Button backBtn;
@@ -173,6 +101,7 @@ public class PointDetailController {
      */
     @FXML
     public void initialize() {
+        detailRequest = new LatestRequest<>(serviceExecutor);
         // 设置返回按钮事件
         backBtn.setOnAction(event -> closeWindow());
         // 设置切换按钮事件
@@ -195,28 +124,32 @@ public class PointDetailController {
         // 显示加载提示
         showLoadingIndicator();
         
-        // 异步加载数据，避免阻塞UI线程
-        new Thread(() -> {
-            try {
-                // 加载所有知识点，用于切换
-                allPoints = pointService.getAllPoints();
-                // 找到当前知识点在列表中的索引
-                for (int i = 0; i < allPoints.size(); i++) {
-                    if (allPoints.get(i).getId().equals(pointId)) {
-                        currentPointIndex = i;
-                        break;
-                    }
-                }
-                // 加载数据
-                loadPointData();
-                loadAllAttachments();
-                // 更新切换按钮状态
-                updateNavigationButtons();
-            } finally {
-                // 隐藏加载提示
-                javafx.application.Platform.runLater(this::hideLoadingIndicator);
-            }
-        }).start();
+        loadPoint();
+    }
+
+    /**
+     * 在后台查询当前知识点及相邻知识点，查询完成后在JavaFX线程中刷新界面
+     */
+    private void loadPoint() {
+        Long id = pointId;
+        prevBtn.setDisable(true);
+        nextBtn.setDisable(true);
+        detailRequest.submit(() -> new PointDetail(pointService.getPointById(id),
+                pointService.getAdjacentSummary(id, false),
+                pointService.getAdjacentSummary(id, true)), detail -> {
+            // 隐藏加载提示
+            hideLoadingIndicator();
+            loadPointData(detail.point());
+            loadAllAttachments(detail.point() == null ? List.of() : detail.point().getAttachmentVOS());
+            // 更新切换按钮状态
+            updateNavigationButtons(detail.prev(), detail.next());
+        }, e -> {
+            hideLoadingIndicator();
+            allAttachments.getChildren().clear();
+            Label errorLabel = new Label("加载知识点失败: " + e.getMessage());
+            errorLabel.setStyle("-fx-text-fill: #e53e3e; -fx-font-size: 14px; -fx-padding: 10px 0;");
+            allAttachments.getChildren().add(errorLabel);
+        });
     }
     
     /**
@@ -256,13 +189,14 @@ public class PointDetailController {
      */
     public void setStage(Stage stage) {
         this.currentStage = stage;
+        // 关闭窗口时停止尚未完成的附件加载
+        stage.addEventHandler(WindowEvent.WINDOW_HIDDEN, e -> attachmentsToken.cancel());
     }
 
     /**
      * 加载知识点数据
      */
-    private void loadPointData() {
-        PointVO point = pointService.getPointById(pointId);
+    private void loadPointData(PointVO point) {
         if (point != null) {
             pointTitle.setText(point.getName());
             detailName.setText(point.getName());
@@ -277,12 +211,13 @@ public class PointDetailController {
     /**
      * 加载所有附件并直接展示内容
      */
-    private void loadAllAttachments() {
+    private void loadAllAttachments(List<AttachmentVO> attachments) {
+        // 取消上一个知识点尚未完成的附件加载
+        attachmentsToken.cancel();
+        attachmentsToken = new PreviewScheduler.Token();
         allAttachments.getChildren().clear();
         
-        List<AttachmentVO> attachments = attachmentService.getAttachmentsByPointId(pointId);
-        
-        if (attachments.isEmpty()) {
+        if (attachments == null || attachments.isEmpty()) {
             Label noAttachLabel = new Label("暂无附件");
             noAttachLabel.setStyle("-fx-font-size: 16px; -fx-text-fill: #718096; -fx-padding: 20px 0;");
             allAttachments.getChildren().add(noAttachLabel);
@@ -463,439 +398,126 @@ public class PointDetailController {
     }
     
     /**
-     * 创建音频播放器
+     * 创建音频播放器，第一次播放时才创建原生播放器
      */
     private void createAudioPlayer(File file, VBox parentContainer) {
-        try {
-            Media media = new Media(file.toURI().toString());
-            MediaPlayer mediaPlayer = new MediaPlayer(media);
-
-            // 音频控制按钮
-            Button playBtn = new Button("播放");
-            playBtn.setStyle("-fx-background-color: #e2e8f0; -fx-text-fill: #2d3748; -fx-padding: 6px 12px; -fx-border-radius: 4px;");
-            playBtn.setOnAction(e -> {
-                if (mediaPlayer.getStatus() == MediaPlayer.Status.PLAYING) {
-                    mediaPlayer.pause();
-                    playBtn.setText("播放");
-                } else {
-                    mediaPlayer.play();
-                    playBtn.setText("暂停");
-                }
-            });
-
-            Button stopBtn = new Button("停止");
-            stopBtn.setStyle("-fx-background-color: #e2e8f0; -fx-text-fill: #2d3748; -fx-padding: 6px 12px; -fx-border-radius: 4px;");
-            stopBtn.setOnAction(e -> {
-                mediaPlayer.stop();
-                playBtn.setText("播放");
-            });
-
-            // 进度条
-            Slider progressSlider = new Slider(0, 1, 0);
-            progressSlider.setShowTickLabels(false);
-            progressSlider.setShowTickMarks(false);
-            progressSlider.setStyle("-fx-pref-height: 8px; -fx-background-color: #e2e8f0;");
-
-            // 时间显示标签
-            Label timeLabel = new Label("00:00 / 00:00");
-            timeLabel.setStyle("-fx-font-family: 'Consolas', 'Monaco', monospace; -fx-font-size: 12px; -fx-text-fill: #718096;");
-
-            // 当媒体时长可用时更新进度条最大值和时间标签
-            media.durationProperty().addListener((obs, oldDuration, newDuration) -> {
-                progressSlider.setMax(newDuration.toSeconds());
-                int seconds = (int) Math.floor(newDuration.toSeconds());
-                int minutes = seconds / 60;
-                seconds %= 60;
-                String formattedDuration = String.format("%02d:%02d", minutes, seconds);
-                timeLabel.setText("00:00 / " + formattedDuration);
-            });
-
-            // 进度条更新
-            mediaPlayer.currentTimeProperty().addListener((obs, oldTime, newTime) -> {
-                if (!progressSlider.isValueChanging()) {
-                    progressSlider.setValue(newTime.toSeconds());
-                    int currentSeconds = (int) Math.floor(newTime.toSeconds());
-                    int currentMinutes = currentSeconds / 60;
-                    currentSeconds %= 60;
-                    String formattedCurrent = String.format("%02d:%02d", currentMinutes, currentSeconds);
-
-                    int totalSeconds = (int) Math.floor(media.getDuration().toSeconds());
-                    int totalMinutes = totalSeconds / 60;
-                    totalSeconds %= 60;
-                    String formattedTotal = String.format("%02d:%02d", totalMinutes, totalSeconds);
-
-                    timeLabel.setText(formattedCurrent + " / " + formattedTotal);
-                }
-            });
-
-            // 进度条拖动
-            progressSlider.setOnMousePressed(e -> mediaPlayer.pause());
-
-            progressSlider.setOnMouseReleased(e -> {
-                mediaPlayer.seek(javafx.util.Duration.seconds(progressSlider.getValue()));
-                mediaPlayer.play();
-                playBtn.setText("暂停");
-            });
-
-            // 进度条拖动过程中更新时间显示
-            progressSlider.valueProperty().addListener((obs, oldValue, newValue) -> {
-                if (progressSlider.isValueChanging()) {
-                    int currentSeconds = (int) Math.floor(newValue.doubleValue());
-                    int currentMinutes = currentSeconds / 60;
-                    currentSeconds %= 60;
-                    String formattedCurrent = String.format("%02d:%02d", currentMinutes, currentSeconds);
-
-                    int totalSeconds = (int) Math.floor(media.getDuration().toSeconds());
-                    int totalMinutes = totalSeconds / 60;
-                    totalSeconds %= 60;
-                    String formattedTotal = String.format("%02d:%02d", totalMinutes, totalSeconds);
-
-                    timeLabel.setText(formattedCurrent + " / " + formattedTotal);
-                }
-            });
-
-            HBox controls = new HBox(10, playBtn, stopBtn, progressSlider, timeLabel);
-            controls.setAlignment(javafx.geometry.Pos.CENTER);
-            controls.setStyle("-fx-padding: 10px; -fx-background-color: #f7fafc; -fx-border-radius: 6px;");
-            HBox.setHgrow(progressSlider, Priority.ALWAYS);
-
-            parentContainer.getChildren().add(controls);
-
-            // 清理资源
-            mediaPlayer.setOnEndOfMedia(() -> playBtn.setText("播放"));
-
-        } catch (Exception e) {
-            Label errorLabel = new Label("加载音频失败: " + e.getMessage());
-            errorLabel.setStyle("-fx-text-fill: #e53e3e; -fx-font-size: 14px; -fx-padding: 10px 0;");
-            parentContainer.getChildren().add(errorLabel);
-        }
+        parentContainer.getChildren().add(new LazyMediaPlayer(file, false, attachmentsToken));
     }
     
     /**
-     * 创建视频播放器
+     * 创建视频播放器，先显示缓存的封面帧，第一次播放时才创建原生播放器
      */
     private void createVideoPlayer(File file, VBox parentContainer) {
-        try {
-            Media media = new Media(file.toURI().toString());
-            MediaPlayer mediaPlayer = new MediaPlayer(media);
-            MediaView mediaView = new MediaView(mediaPlayer);
-
-            mediaView.setPreserveRatio(true);
-            mediaView.setFitWidth(800);
-            mediaView.setFitHeight(450);
-            mediaView.setStyle("-fx-border-radius: 6px; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 8, 0, 0, 2);");
-
-            // 视频控制按钮
-            Button playBtn = new Button("播放");
-            playBtn.setStyle("-fx-background-color: #e2e8f0; -fx-text-fill: #2d3748; -fx-padding: 6px 12px; -fx-border-radius: 4px;");
-            playBtn.setOnAction(e -> {
-                if (mediaPlayer.getStatus() == MediaPlayer.Status.PLAYING) {
-                    mediaPlayer.pause();
-                    playBtn.setText("播放");
-                } else {
-                    mediaPlayer.play();
-                    playBtn.setText("暂停");
-                }
-            });
-
-            Button stopBtn = new Button("停止");
-            stopBtn.setStyle("-fx-background-color: #e2e8f0; -fx-text-fill: #2d3748; -fx-padding: 6px 12px; -fx-border-radius: 4px;");
-            stopBtn.setOnAction(e -> {
-                mediaPlayer.stop();
-                playBtn.setText("播放");
-            });
-
-            // 进度条
-            Slider progressSlider = new Slider(0, 1, 0);
-            progressSlider.setShowTickLabels(false);
-            progressSlider.setShowTickMarks(false);
-            progressSlider.setStyle("-fx-pref-height: 8px; -fx-background-color: #e2e8f0;");
-
-            // 时间显示标签
-            Label timeLabel = new Label("00:00 / 00:00");
-            timeLabel.setStyle("-fx-font-family: 'Consolas', 'Monaco', monospace; -fx-font-size: 12px; -fx-text-fill: #718096;");
-
-            // 当媒体时长可用时更新进度条最大值和时间标签
-            media.durationProperty().addListener((obs, oldDuration, newDuration) -> {
-                progressSlider.setMax(newDuration.toSeconds());
-                int seconds = (int) Math.floor(newDuration.toSeconds());
-                int minutes = seconds / 60;
-                seconds %= 60;
-                String formattedDuration = String.format("%02d:%02d", minutes, seconds);
-                timeLabel.setText("00:00 / " + formattedDuration);
-            });
-
-            // 进度条更新
-            mediaPlayer.currentTimeProperty().addListener((obs, oldTime, newTime) -> {
-                if (!progressSlider.isValueChanging()) {
-                    progressSlider.setValue(newTime.toSeconds());
-                    int currentSeconds = (int) Math.floor(newTime.toSeconds());
-                    int currentMinutes = currentSeconds / 60;
-                    currentSeconds %= 60;
-                    String formattedCurrent = String.format("%02d:%02d", currentMinutes, currentSeconds);
-
-                    int totalSeconds = (int) Math.floor(media.getDuration().toSeconds());
-                    int totalMinutes = totalSeconds / 60;
-                    totalSeconds %= 60;
-                    String formattedTotal = String.format("%02d:%02d", totalMinutes, totalSeconds);
-
-                    timeLabel.setText(formattedCurrent + " / " + formattedTotal);
-                }
-            });
-
-            // 进度条拖动
-            progressSlider.setOnMousePressed(e -> mediaPlayer.pause());
-
-            progressSlider.setOnMouseReleased(e -> {
-                mediaPlayer.seek(javafx.util.Duration.seconds(progressSlider.getValue()));
-                mediaPlayer.play();
-                playBtn.setText("暂停");
-            });
-
-            // 进度条拖动过程中更新时间显示
-            progressSlider.valueProperty().addListener((obs, oldValue, newValue) -> {
-                if (progressSlider.isValueChanging()) {
-                    int currentSeconds = (int) Math.floor(newValue.doubleValue());
-                    int currentMinutes = currentSeconds / 60;
-                    currentSeconds %= 60;
-                    String formattedCurrent = String.format("%02d:%02d", currentMinutes, currentSeconds);
-
-                    int totalSeconds = (int) Math.floor(media.getDuration().toSeconds());
-                    int totalMinutes = totalSeconds / 60;
-                    totalSeconds %= 60;
-                    String formattedTotal = String.format("%02d:%02d", totalMinutes, totalSeconds);
-
-                    timeLabel.setText(formattedCurrent + " / " + formattedTotal);
-                }
-            });
-
-            // 工具栏
-            HBox controls = new HBox(10, playBtn, stopBtn, progressSlider, timeLabel);
-            controls.setAlignment(javafx.geometry.Pos.CENTER);
-            controls.setStyle("-fx-padding: 15px; -fx-background-color: #f7fafc; -fx-border-radius: 6px;");
-            HBox.setHgrow(progressSlider, Priority.ALWAYS);
-
-            // 视频容器
-            VBox videoContainer = new VBox(10, mediaView, controls);
-            videoContainer.setAlignment(javafx.geometry.Pos.CENTER);
-            videoContainer.setStyle("-fx-background-color: #f7fafc; -fx-padding: 20px; -fx-border-radius: 6px;");
-
-            parentContainer.getChildren().add(videoContainer);
-
-            // 清理资源
-            mediaPlayer.setOnEndOfMedia(() -> playBtn.setText("播放"));
-
-        } catch (Exception e) {
-            Label errorLabel = new Label("加载视频失败: " + e.getMessage());
-            errorLabel.setStyle("-fx-text-fill: #e53e3e; -fx-font-size: 14px; -fx-padding: 10px 0;");
-            parentContainer.getChildren().add(errorLabel);
-        }
+        parentContainer.getChildren().add(new LazyMediaPlayer(file, true, attachmentsToken));
     }
     
     /**
      * 显示文本文件
      */
     private void displayTextFile(File file, VBox parentContainer) {
-        try {
-            // 读取文件内容
-            String content = Files.readString(file.toPath(), StandardCharsets.UTF_8);
-            
-            // 使用带放大功能的文本显示组件
-            createTextWithEnlargeButton(content, "TEXT", parentContainer, file.getName());
-        } catch (IOException e) {
-            Label errorLabel = new Label("读取文件失败: " + e.getMessage());
-            errorLabel.setStyle("-fx-text-fill: #e53e3e; -fx-font-size: 14px; -fx-padding: 10px 0;");
-            parentContainer.getChildren().add(errorLabel);
-        }
+        // 文件映射到内存，按行索引后只解码可见的行，不把整个文件读入堆；与预览面板共用加载逻辑
+        PreviewDriver.show(Previewer.of(TextPreviewer::loadDocument, this::renderText),
+                file, parentContainer, attachmentsToken, this::createErrorLabel);
+    }
+    
+    /**
+     * 用按行虚拟化的文本视图显示文本，行索引在后台建立，已索引的部分立即可以浏览；放大查看时共用同一个映射和索引
+     */
+    private Node renderText(TextPreviewer.TextDocument text) {
+        MappedTextFile document = text.document();
+        TextLineView lineView = createPlainTextLineView(document, 16);
+        lineView.setPrefHeight(300);
+        lineView.load(Charset.forName(text.charset()));
+        return createWithEnlargeButton(lineView, () -> showEnlargeText(document));
+    }
+    
+    /**
+     * 创建显示普通文本的按行视图
+     */
+    private TextLineView createPlainTextLineView(MappedTextFile document, int fontSize) {
+        TextLineView lineView = new TextLineView(document,
+                "-fx-font-family: 'Microsoft YaHei', 'SimSun', serif; " +
+                "-fx-font-size: " + fontSize + "px; " +
+                "-fx-text-fill: #4a5568; " +
+                "-fx-padding: 2px 15px;");
+        lineView.setStyle("-fx-background-color: white; -fx-control-inner-background: white; -fx-border: none;");
+        return lineView;
     }
     
     /**
      * 显示代码文件
      */
     private void displayCodeFile(File file, VBox parentContainer) {
-        try {
-            // 读取文件内容
-            String content = Files.readString(file.toPath(), StandardCharsets.UTF_8);
-            
-            // 使用带放大功能的代码显示组件，支持语法高亮
-            createTextWithEnlargeButton(content, "CODE", parentContainer, file.getName());
-        } catch (IOException e) {
-            Label errorLabel = new Label("读取代码文件失败: " + e.getMessage());
-            errorLabel.setStyle("-fx-text-fill: #e53e3e; -fx-font-size: 14px; -fx-padding: 10px 0;");
-            parentContainer.getChildren().add(errorLabel);
-        }
+        // 在后台读取并高亮，与预览面板共用高亮缓存
+        PreviewDriver.show(Previewer.of(CodePreviewer::loadCode, this::renderCode),
+                file, parentContainer, attachmentsToken, this::createErrorLabel);
     }
     
     /**
-     * 显示图片文件
+     * 用按行虚拟化的代码视图显示高亮后的代码，只为可见行创建节点；放大查看时复用高亮结果
      */
-    private void displayImageFile(File file, VBox parentContainer) {
-        try {
-            Image image = new Image(file.toURI().toString());
-            ImageView imageView = new ImageView(image);
-            
-            imageView.setPreserveRatio(true);
-            
-            // 计算合适的显示尺寸
-            double imageWidth = image.getWidth();
-            double imageHeight = image.getHeight();
-            double maxWidth = 800;
-            double maxHeight = 600;
-            
-            if (imageWidth > maxWidth || imageHeight > maxHeight) {
-                double widthRatio = maxWidth / imageWidth;
-                double heightRatio = maxHeight / imageHeight;
-                double scaleRatio = Math.min(widthRatio, heightRatio);
-                
-                imageView.setFitWidth(imageWidth * scaleRatio);
-                imageView.setFitHeight(imageHeight * scaleRatio);
-            } else {
-                imageView.setFitWidth(imageWidth);
-                imageView.setFitHeight(imageHeight);
-            }
-            
-            imageView.setStyle(
-                    "-fx-border-radius: 6px; " +
-                    "-fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 8, 0, 0, 2);"
-            );
-            
-            // 添加图片到容器
-            parentContainer.getChildren().add(imageView);
-        } catch (Exception e) {
-            Label errorLabel = new Label("加载图片失败: " + e.getMessage());
-            errorLabel.setStyle("-fx-text-fill: #e53e3e; -fx-font-size: 14px; -fx-padding: 10px 0;");
-            parentContainer.getChildren().add(errorLabel);
-        }
+    private Node renderCode(CodePreviewer.CodeContent content) {
+        CodeLineView codeView = new CodeLineView("#2d3748", 14);
+        codeView.setCode(content.code());
+        codeView.setPrefHeight(300);
+        return createWithEnlargeButton(codeView, () -> showEnlargeCode(content.code(), content.file().getName()));
     }
     
     /**
-     * 获取文件扩展名
+     * 显示图片文件
      */
-    private String getFileExtension(String fileName) {
-        int lastDotIndex = fileName.lastIndexOf('.');
-        if (lastDotIndex == -1) {
-            return "";
-        }
-        return fileName.substring(lastDotIndex).toLowerCase();
+    private void displayImageFile(File file, VBox parentContainer) {
+        // 在后台加载缩略图或按缩略图尺寸解码，显示尺寸不超过800x600，无需解码原图
+        PreviewDriver.show(Previewer.of(ImagePreviewer::loadImage, this::renderImage),
+                file, parentContainer, attachmentsToken, this::createErrorLabel);
     }
     
     /**
-     * 语法高亮渲染
+     * 按不超过800x600的尺寸显示图片
      */
-    private void syntaxHighlight(TextFlow textFlow, String content, String fileExtension) {
-        LanguageSyntax syntax = LANGUAGE_SYNTAX_MAP.getOrDefault(fileExtension, 
-                new LanguageSyntax(Collections.emptySet(), "//", "/*", "*/"));
+    private Node renderImage(ImagePreviewer.PreviewImage preview) {
+        Image image = preview.image();
+        ImageView imageView = new ImageView(image);
         
-        // 简单的语法高亮实现
-        String[] lines = content.split("\\n");
+        imageView.setPreserveRatio(true);
         
-        for (String line : lines) {
-            List<TextSegment> segments = new ArrayList<>();
-            
-            // 处理多行注释（这里简化处理，只处理单行内的注释）
-            if (syntax.multiLineCommentStart() != null && syntax.multiLineCommentEnd() != null) {
-                int commentStart = line.indexOf(syntax.multiLineCommentStart());
-                if (commentStart != -1) {
-                    int commentEnd = line.indexOf(syntax.multiLineCommentEnd(), commentStart + syntax.multiLineCommentStart().length());
-                    processLineSegments(line.substring(0, commentStart), syntax, segments);
-                    if (commentEnd != -1) {
-                        // 处理注释前的内容
-                        // 添加注释
-                        segments.add(new TextSegment(
-                                line.substring(commentStart, commentEnd + syntax.multiLineCommentEnd().length()),
-                                Color.GREEN
-                        ));
-                        // 处理注释后的内容
-                        processLineSegments(line.substring(commentEnd + syntax.multiLineCommentEnd().length()), syntax, segments);
-                    } else {
-                        // 多行注释开始，没有结束
-                        segments.add(new TextSegment(
-                                line.substring(commentStart),
-                                Color.GREEN
-                        ));
-                    }
-                } else {
-                    // 处理单行注释
-                    int singleCommentStart = line.indexOf(syntax.singleLineComment());
-                    if (singleCommentStart != -1) {
-                        // 处理注释前的内容
-                        processLineSegments(line.substring(0, singleCommentStart), syntax, segments);
-                        // 添加单行注释
-                        segments.add(new TextSegment(
-                                line.substring(singleCommentStart),
-                                Color.GREEN
-                        ));
-                    } else {
-                        // 没有注释，处理整行
-                        processLineSegments(line, syntax, segments);
-                    }
-                }
-            } else {
-                // 只有单行注释的语言（如Python）
-                int singleCommentStart = line.indexOf(syntax.singleLineComment());
-                if (singleCommentStart != -1) {
-                    // 处理注释前的内容
-                    processLineSegments(line.substring(0, singleCommentStart), syntax, segments);
-                    // 添加单行注释
-                    segments.add(new TextSegment(
-                            line.substring(singleCommentStart),
-                            Color.GREEN
-                    ));
-                } else {
-                    // 没有注释，处理整行
-                    processLineSegments(line, syntax, segments);
-                }
-            }
-            
-            // 将分段添加到TextFlow
-            for (TextSegment segment : segments) {
-                Text text = new Text(segment.text());
-                text.setFill(segment.color());
-                textFlow.getChildren().add(text);
-            }
+        // 计算合适的显示尺寸
+        double imageWidth = image.getWidth();
+        double imageHeight = image.getHeight();
+        double maxWidth = 800;
+        double maxHeight = 600;
+        
+        if (imageWidth > maxWidth || imageHeight > maxHeight) {
+            double widthRatio = maxWidth / imageWidth;
+            double heightRatio = maxHeight / imageHeight;
+            double scaleRatio = Math.min(widthRatio, heightRatio);
             
-            // 添加换行符
-            textFlow.getChildren().add(new Text("\n"));
+            imageView.setFitWidth(imageWidth * scaleRatio);
+            imageView.setFitHeight(imageHeight * scaleRatio);
+        } else {
+            imageView.setFitWidth(imageWidth);
+            imageView.setFitHeight(imageHeight);
         }
+        
+        imageView.setStyle(
+                "-fx-border-radius: 6px; " +
+                "-fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 8, 0, 0, 2);"
+        );
+        
+        StackPane imagePane = new StackPane(imageView);
+        imagePane.setAlignment(Pos.CENTER_LEFT);
+        return imagePane;
     }
     
     /**
-     * 处理行内语法元素
+     * 获取文件扩展名
      */
-    private void processLineSegments(String line, LanguageSyntax syntax, List<TextSegment> segments) {
-        // 正则表达式匹配规则
-        String pattern = "\\s+|\\b(\\w+)\\b|([\"'])(.*?)\\2|([0-9]+\\.?[0-9]*)|([+\\-*/%=<>!&|^~\\[\\]{}().,;:])";
-        Pattern regex = Pattern.compile(pattern);
-        Matcher matcher = regex.matcher(line);
-        
-        while (matcher.find()) {
-            String match = matcher.group();
-            
-            // 空格
-            if (match.matches("\\s+")) {
-                segments.add(new TextSegment(match, Color.WHITE));
-            }
-            // 关键字
-            else if (matcher.group(1) != null && syntax.keywords().contains(matcher.group(1))) {
-                segments.add(new TextSegment(match, Color.BLUE));
-            }
-            // 字符串
-            else if (matcher.group(2) != null) {
-                segments.add(new TextSegment(match, Color.ORANGE));
-            }
-            // 数字
-            else if (matcher.group(4) != null) {
-                segments.add(new TextSegment(match, Color.PURPLE));
-            }
-            // 运算符和标点符号
-            else if (matcher.group(5) != null) {
-                segments.add(new TextSegment(match, Color.WHITE));
-            }
-            // 标识符
-            else {
-                segments.add(new TextSegment(match, Color.WHITE));
-            }
+    private String getFileExtension(String fileName) {
+        int lastDotIndex = fileName.lastIndexOf('.');
+        if (lastDotIndex == -1) {
+            return "";
         }
+        return fileName.substring(lastDotIndex).toLowerCase();
     }
     
     /**
@@ -907,140 +529,83 @@ public class PointDetailController {
         // 检查文件是否存在
         if (!file.exists()) {
             System.out.println("PDF文件不存在: " + file.getAbsolutePath());
-            Label errorLabel = new Label("PDF文件不存在: " + file.getName());
-            errorLabel.setStyle("-fx-text-fill: #e53e3e; -fx-font-size: 14px; -fx-padding: 10px 0;");
-            parentContainer.getChildren().add(errorLabel);
+            parentContainer.getChildren().add(createErrorLabel("PDF文件不存在: " + file.getName()));
             return;
         }
         
+        // 在后台读取页数并渲染前三页，与预览面板共用文档池、页面缓存和磁盘缩略图
+        PreviewDriver.show(Previewer.of(PdfPreviewer::loadFirstPages, this::renderPdf),
+                file, parentContainer, attachmentsToken, this::createErrorLabel);
+    }
+    
+    /**
+     * 显示PDF的首屏页面、页数和放大查看按钮
+     */
+    private Node renderPdf(PdfPreviewer.PdfFirstPages pdf) {
+        File file = pdf.file();
+        int pageCount = pdf.pageCount();
+        
         // 创建PDF内容容器
         VBox pdfContainer = new VBox();
         pdfContainer.setStyle("-fx-background-color: #f7fafc; -fx-padding: 15px; -fx-border-radius: 6px;");
         
-        // 添加加载中提示
-        Label loadingLabel = new Label("正在加载PDF文件...");
-        loadingLabel.setStyle("-fx-text-fill: #718096; -fx-font-size: 14px; -fx-padding: 20px 0;");
-        loadingLabel.setAlignment(Pos.CENTER);
-        pdfContainer.getChildren().add(loadingLabel);
-        
-        parentContainer.getChildren().add(pdfContainer);
+        // 创建页面容器
+        VBox pagesVBox = new VBox(10);
+        pagesVBox.setAlignment(Pos.CENTER);
+        pagesVBox.setStyle("-fx-padding: 10px;");
         
-        // 异步加载PDF文件，避免阻塞UI线程
-        new Thread(() -> {
-            try {
-                System.out.println("开始加载PDF文件: " + file.getName());
-                // 使用PDFBox加载PDF文件
-                PDDocument document = PDDocument.load(file);
-                PDFRenderer pdfRenderer = new PDFRenderer(document);
-                int pageCount = document.getNumberOfPages();
-                
-                System.out.println("PDF文件页数: " + pageCount);
-                
-                // 创建页面容器
-                VBox pagesVBox = new VBox(10);
-                pagesVBox.setAlignment(Pos.CENTER);
-                pagesVBox.setStyle("-fx-padding: 10px;");
-                
-                // 只渲染前三页，提高性能
-                int pagesToRender = Math.min(pageCount, 3);
-                for (int pageNum = 0; pageNum < pagesToRender; pageNum++) {
-                    try {
-                        System.out.println("渲染PDF第 " + (pageNum + 1) + " 页");
-                        // 渲染页面
-                        BufferedImage bufferedImage = pdfRenderer.renderImage(pageNum, 1.5f);
-                        Image image = SwingFXUtils.toFXImage(bufferedImage, null);
-                        
-                        ImageView imageView = new ImageView(image);
-                        imageView.setPreserveRatio(true);
-                        // 调整宽度，适配更宽的窗口
-                        imageView.setFitWidth(1000);
-                        
-                        // 添加页码
-                        Label pageLabel = new Label("第 " + (pageNum + 1) + " 页");
-                        pageLabel.setStyle("-fx-font-weight: 600; -fx-text-fill: #4a5568; -fx-margin-bottom: 5px;");
-                        
-                        VBox pageContainer = new VBox(5, pageLabel, imageView);
-                        pageContainer.setAlignment(Pos.CENTER);
-                        pageContainer.setStyle("-fx-background-color: white; -fx-padding: 10px; -fx-border-radius: 4px; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.05), 5, 0, 0, 2);");
-                        
-                        // 在JavaFX应用线程中添加页面
-                        javafx.application.Platform.runLater(() -> pagesVBox.getChildren().add(pageContainer));
-                    } catch (Exception e) {
-                        // 单页渲染失败，继续渲染其他页
-                        System.err.println("渲染PDF第 " + (pageNum + 1) + " 页失败: " + e.getMessage());
-                    }
-                }
-                
-                // 如果有更多页，显示提示
-                if (pageCount > pagesToRender) {
-                    Label morePagesLabel = new Label("... 还有 " + (pageCount - pagesToRender) + " 页未显示");
-                    morePagesLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: #718096; -fx-margin-top: 5px;");
-                    morePagesLabel.setAlignment(Pos.CENTER);
-                    
-                    javafx.application.Platform.runLater(() -> pagesVBox.getChildren().add(morePagesLabel));
-                }
-                
-                // 创建滚动面板
-                ScrollPane scrollPane = new ScrollPane();
-                scrollPane.setFitToWidth(true);
-                scrollPane.setStyle("-fx-background-color: #f7fafc; -fx-border: none;");
-                scrollPane.setContent(pagesVBox);
-                
-                // 添加控制栏
-                HBox controlBox = new HBox();
-                controlBox.setAlignment(Pos.CENTER_RIGHT);
-                controlBox.setStyle("-fx-padding: 0 5px 5px 0;");
-                
-                // 添加放大查看按钮
-                Button enlargeBtn = new Button("🔍");
-                enlargeBtn.setStyle(
-                        "-fx-background-color: transparent; " +
-                        "-fx-font-size: 16px; " +
-                        "-fx-text-fill: #4a5568; " +
-                        "-fx-padding: 4px 8px; " +
-                        "-fx-border: none; " +
-                        "-fx-cursor: hand;"
-                );
-                enlargeBtn.setTooltip(new Tooltip("放大查看"));
-                enlargeBtn.setOnAction(e -> showEnlargePdfView(file, pageCount));
-                
-                // 添加页码信息
-                Label pageInfoLabel = new Label("共 " + pageCount + " 页");
-                pageInfoLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: #718096; -fx-margin-right: 10px;");
-                
-                controlBox.getChildren().addAll(pageInfoLabel, enlargeBtn);
-                
-                // 在JavaFX应用线程中更新UI
-                javafx.application.Platform.runLater(() -> {
-                    // 清除加载提示
-                    pdfContainer.getChildren().clear();
-                    
-                    pdfContainer.getChildren().addAll(controlBox, scrollPane);
-                });
-                
-                // 关闭文档
-                document.close();
-                System.out.println("PDF文件加载完成");
-            } catch (Exception e) {
-                final String errorMsg = "读取PDF文件失败: " + e.getMessage();
-                System.err.println(errorMsg);
-                e.printStackTrace();
-                
-                // 在JavaFX应用线程中显示错误信息
-                javafx.application.Platform.runLater(() -> {
-                    // 清除加载提示
-                    pdfContainer.getChildren().clear();
-                    
-                    Label errorLabel = new Label(errorMsg);
-                    errorLabel.setStyle("-fx-text-fill: #e53e3e; -fx-font-size: 14px; -fx-padding: 10px 0;");
-                    pdfContainer.getChildren().add(errorLabel);
-                });
+        List<PdfPreviewer.Page> pages = pdf.pages();
+        for (int pageNum = 0; pageNum < pages.size(); pageNum++) {
+            Image image = pages.get(pageNum).image();
+            if (image == null) {
+                // 单页渲染失败，跳过该页
+                continue;
             }
-        }).start();
+            ImageView imageView = new ImageView(image);
+            imageView.setPreserveRatio(true);
+            // 调整宽度，适配更宽的窗口
+            imageView.setFitWidth(1000);
+            
+            // 添加页码
+            Label pageLabel = new Label("第 " + (pageNum + 1) + " 页");
+            pageLabel.setStyle("-fx-font-weight: 600; -fx-text-fill: #4a5568; -fx-margin-bottom: 5px;");
+            
+            VBox pageContainer = new VBox(5, pageLabel, imageView);
+            pageContainer.setAlignment(Pos.CENTER);
+            pageContainer.setStyle("-fx-background-color: white; -fx-padding: 10px; -fx-border-radius: 4px; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.05), 5, 0, 0, 2);");
+            pagesVBox.getChildren().add(pageContainer);
+        }
+        
+        // 如果有更多页，显示提示
+        if (pageCount > pages.size()) {
+            Label morePagesLabel = new Label("... 还有 " + (pageCount - pages.size()) + " 页未显示");
+            morePagesLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: #718096; -fx-margin-top: 5px;");
+            morePagesLabel.setAlignment(Pos.CENTER);
+            pagesVBox.getChildren().add(morePagesLabel);
+        }
+        
+        // 创建滚动面板
+        ScrollPane scrollPane = new ScrollPane();
+        scrollPane.setFitToWidth(true);
+        scrollPane.setStyle("-fx-background-color: #f7fafc; -fx-border: none;");
+        scrollPane.setContent(pagesVBox);
+        
+        // 添加控制栏
+        HBox controlBox = new HBox();
+        controlBox.setAlignment(Pos.CENTER_RIGHT);
+        controlBox.setStyle("-fx-padding: 0 5px 5px 0;");
+        
+        // 添加页码信息
+        Label pageInfoLabel = new Label("共 " + pageCount + " 页");
+        pageInfoLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: #718096; -fx-margin-right: 10px;");
+        
+        controlBox.getChildren().addAll(pageInfoLabel, createEnlargeButton(() -> showEnlargePdfView(file, pageCount)));
+        pdfContainer.getChildren().addAll(controlBox, scrollPane);
+        return pdfContainer;
     }
     
     /**
-     * 放大查看PDF
+     * 放大查看PDF，只渲染滚动到的页面
      */
     private void showEnlargePdfView(File file, int pageCount) {
         Stage stage = new Stage();
@@ -1049,48 +614,14 @@ public class PointDetailController {
         VBox root = new VBox(10);
         root.setStyle("-fx-background-color: #f7fafc; -fx-padding: 20px;");
         
-        ScrollPane scrollPane = new ScrollPane();
-        scrollPane.setFitToWidth(true);
-        scrollPane.setStyle("-fx-background-color: #f7fafc; -fx-border: none;");
-        
-        VBox pagesVBox = new VBox(15);
-        pagesVBox.setAlignment(Pos.CENTER);
-        pagesVBox.setStyle("-fx-padding: 10px;");
+        PdfPageViewer pageViewer = new PdfPageViewer(file, pageCount, 2.0f, 850);
+        pageViewer.setPageStyle("-fx-background-color: white; -fx-padding: 15px; -fx-border-radius: 6px; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 8, 0, 0, 3);");
+        VBox.setVgrow(pageViewer, Priority.ALWAYS);
         
-        try {
-            PDDocument document = PDDocument.load(file);
-            PDFRenderer pdfRenderer = new PDFRenderer(document);
-            
-            for (int pageNum = 0; pageNum < pageCount; pageNum++) {
-                BufferedImage bufferedImage = pdfRenderer.renderImage(pageNum, 2.0f);
-                Image image = SwingFXUtils.toFXImage(bufferedImage, null);
-                
-                ImageView imageView = new ImageView(image);
-                imageView.setPreserveRatio(true);
-                imageView.setFitWidth(850);
-                
-                Label pageLabel = new Label("第 " + (pageNum + 1) + " 页");
-                pageLabel.setStyle("-fx-font-weight: 600; -fx-text-fill: #2d3748; -fx-margin-bottom: 5px;");
-                
-                VBox pageContainer = new VBox(5, pageLabel, imageView);
-                pageContainer.setAlignment(Pos.CENTER);
-                pageContainer.setStyle("-fx-background-color: white; -fx-padding: 15px; -fx-border-radius: 6px; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 8, 0, 0, 3);");
-                
-                pagesVBox.getChildren().add(pageContainer);
-            }
-            
-            document.close();
-        } catch (IOException e) {
-            Label errorLabel = new Label("加载PDF文件失败: " + e.getMessage());
-            errorLabel.setStyle("-fx-text-fill: #e53e3e; -fx-font-size: 16px; -fx-padding: 20px;");
-            pagesVBox.getChildren().add(errorLabel);
-        }
-        
-        scrollPane.setContent(pagesVBox);
-        VBox.setVgrow(scrollPane, Priority.ALWAYS);
-        
-        root.getChildren().add(scrollPane);
+        root.getChildren().add(pageViewer);
         stage.setScene(new Scene(root, 900, 700));
+        // 关闭窗口时释放文档
+        stage.setOnHidden(e -> pageViewer.dispose());
         stage.show();
     }
     
@@ -1098,62 +629,68 @@ public class PointDetailController {
      * 显示DOCX文件
      */
     private void displayDocxFile(File file, VBox parentContainer) {
-        try {
-            System.out.println("开始处理DOCX文件: " + file.getAbsolutePath());
-            
-            // 检查文件是否存在
-            if (!file.exists()) {
-                System.out.println("DOCX文件不存在: " + file.getAbsolutePath());
-                Label errorLabel = new Label("DOCX文件不存在: " + file.getName());
-                errorLabel.setStyle("-fx-text-fill: #e53e3e; -fx-font-size: 14px; -fx-padding: 10px 0;");
-                parentContainer.getChildren().add(errorLabel);
-                return;
-            }
-            
-            // 使用POI加载DOCX文件
-            XWPFDocument document = new XWPFDocument(Files.newInputStream(file.toPath()));
-            
-            // 提取文本内容
-            StringBuilder content = new StringBuilder();
-            List<XWPFParagraph> paragraphs = document.getParagraphs();
-            System.out.println("DOCX文件段落数量: " + paragraphs.size());
-            
-            for (XWPFParagraph paragraph : paragraphs) {
-                String text = paragraph.getText();
-                if (!text.isEmpty()) {
-                    System.out.println("DOCX段落内容: " + text);
-                    content.append(text).append("\n\n");
-                }
-            }
-            
-            document.close();
-            
-            // 如果提取到内容，显示文本
-            if (!content.isEmpty()) {
-                System.out.println("成功提取DOCX内容，长度: " + content.length());
-                // 创建带放大功能的文本显示组件
-                createTextWithEnlargeButton(content.toString(), "DOCX", parentContainer, file.getName());
-            } else {
-                // 没有提取到文本，显示提示信息
-                System.out.println("DOCX文件内容为空或无法提取");
-                Label infoLabel = new Label("DOCX文件内容为空或无法提取");
-                infoLabel.setStyle("-fx-text-fill: #718096; -fx-font-size: 14px; -fx-padding: 15px 0;");
-                parentContainer.getChildren().add(infoLabel);
-            }
-        } catch (Exception e) {
-            // 捕获所有异常，确保UI不会崩溃
-            System.out.println("读取DOCX文件失败: " + e.getMessage());
-            e.printStackTrace();
-            Label errorLabel = new Label("读取DOCX文件失败: " + e.getMessage());
-            errorLabel.setStyle("-fx-text-fill: #e53e3e; -fx-font-size: 14px; -fx-padding: 10px 0;");
-            parentContainer.getChildren().add(errorLabel);
+        System.out.println("开始处理DOCX文件: " + file.getAbsolutePath());
+        
+        // 检查文件是否存在
+        if (!file.exists()) {
+            System.out.println("DOCX文件不存在: " + file.getAbsolutePath());
+            parentContainer.getChildren().add(createErrorLabel("DOCX文件不存在: " + file.getName()));
+            return;
+        }
+        
+        // 在后台用POI提取非空段落，与预览面板共用提取逻辑
+        PreviewDriver.show(Previewer.of(DocxPreviewer::loadContent, this::renderDocx),
+                file, parentContainer, attachmentsToken, this::createErrorLabel);
+    }
+    
+    /**
+     * 显示DOCX的文本内容
+     */
+    private Node renderDocx(DocxPreviewer.DocxContent docx) {
+        String content = docx.text();
+        if (content.isEmpty()) {
+            // 没有提取到文本，显示提示信息
+            System.out.println("DOCX文件内容为空或无法提取");
+            Label infoLabel = new Label("DOCX文件内容为空或无法提取");
+            infoLabel.setStyle("-fx-text-fill: #718096; -fx-font-size: 14px; -fx-padding: 15px 0;");
+            return infoLabel;
         }
+        System.out.println("成功提取DOCX内容，长度: " + content.length());
+        // 创建带放大功能的文本显示组件
+        return createWithEnlargeButton(createPlainTextArea(content),
+                () -> showEnlargeText(content, "DOCX", docx.file().getName()));
+    }
+    
+    /**
+     * 创建显示普通文本的TextArea
+     */
+    private TextArea createPlainTextArea(String content) {
+        TextArea textArea = new TextArea(content);
+        textArea.setEditable(false);
+        textArea.setWrapText(true);
+        textArea.setPrefHeight(300);
+        
+        // 设置样式
+        String baseStyle = 
+                "-fx-border: none; " +
+                "-fx-padding: 15px; " +
+                "-fx-wrap-text: true;";
+        
+        textArea.setStyle(
+                "-fx-background-color: white; " +
+                "-fx-font-family: 'Microsoft YaHei', 'SimSun', serif; " +
+                "-fx-font-size: 16px; " +
+                "-fx-line-spacing: 1.5; " +
+                "-fx-text-fill: #4a5568; " +
+                baseStyle
+        );
+        return textArea;
     }
     
     /**
-     * 创建带放大按钮的文本显示组件
+     * 在内容上方加上放大查看按钮
      */
-    private void createTextWithEnlargeButton(String content, String fileType, VBox parentContainer, String fileName) {
+    private VBox createWithEnlargeButton(Node contentNode, Runnable onEnlarge) {
         // 创建容器
         VBox container = new VBox();
         container.setStyle("-fx-background-color: #f7fafc; -fx-border-radius: 6px;");
@@ -1163,7 +700,17 @@ public class PointDetailController {
         controlBox.setAlignment(Pos.CENTER_RIGHT);
         controlBox.setStyle("-fx-padding: 0 5px 5px 0;");
         
-        // 添加放大查看按钮
+        controlBox.getChildren().add(createEnlargeButton(onEnlarge));
+        container.getChildren().addAll(controlBox, contentNode);
+        
+        VBox.setVgrow(contentNode, Priority.ALWAYS);
+        return container;
+    }
+    
+    /**
+     * 创建放大查看按钮
+     */
+    private Button createEnlargeButton(Runnable onEnlarge) {
         Button enlargeBtn = new Button("🔍");
         enlargeBtn.setStyle(
                 "-fx-background-color: transparent; " +
@@ -1174,57 +721,17 @@ public class PointDetailController {
                 "-fx-cursor: hand;"
         );
         enlargeBtn.setTooltip(new Tooltip("放大查看"));
-        enlargeBtn.setOnAction(e -> showEnlargeText(content, fileType, fileName));
-        
-        controlBox.getChildren().add(enlargeBtn);
-        
-        if ("CODE".equals(fileType)) {
-            // 代码文件使用TextFlow显示语法高亮
-            TextFlow textFlow = new TextFlow();
-            textFlow.setStyle(
-                    "-fx-background-color: #2d3748; " +
-                    "-fx-padding: 15px; " +
-                    "-fx-font-family: 'Consolas', 'Monaco', 'Courier New', monospace; " +
-                    "-fx-font-size: 14px;"
-            );
-            textFlow.setPrefHeight(300);
-            
-            // 应用语法高亮
-            syntaxHighlight(textFlow, content, getFileExtension(fileName));
-            
-            // 创建滚动面板
-            ScrollPane scrollPane = new ScrollPane(textFlow);
-            scrollPane.setFitToWidth(true);
-            scrollPane.setStyle("-fx-background-color: #f7fafc; -fx-border: none;");
-            
-            container.getChildren().addAll(controlBox, scrollPane);
-        } else {
-            // 普通文本文件使用TextArea显示
-            TextArea textArea = new TextArea(content);
-            textArea.setEditable(false);
-            textArea.setWrapText(true);
-            textArea.setPrefHeight(300);
-            
-            // 设置样式
-            String baseStyle = 
-                    "-fx-border: none; " +
-                    "-fx-padding: 15px; " +
-                    "-fx-wrap-text: true;";
-            
-            textArea.setStyle(
-                    "-fx-background-color: white; " +
-                    "-fx-font-family: 'Microsoft YaHei', 'SimSun', serif; " +
-                    "-fx-font-size: 16px; " +
-                    "-fx-line-spacing: 1.5; " +
-                    "-fx-text-fill: #4a5568; " +
-                    baseStyle
-            );
-            
-            container.getChildren().addAll(controlBox, textArea);
-        }
-        
-        VBox.setVgrow(container.getChildren().get(1), Priority.ALWAYS);
-        parentContainer.getChildren().add(container);
+        enlargeBtn.setOnAction(e -> onEnlarge.run());
+        return enlargeBtn;
+    }
+    
+    /**
+     * 创建错误提示
+     */
+    private Label createErrorLabel(String message) {
+        Label errorLabel = new Label(message);
+        errorLabel.setStyle("-fx-text-fill: #e53e3e; -fx-font-size: 14px; -fx-padding: 10px 0;");
+        return errorLabel;
     }
     
     /**
@@ -1237,49 +744,66 @@ public class PointDetailController {
         VBox root = new VBox(10);
         root.setStyle("-fx-background-color: #f7fafc; -fx-padding: 20px;");
         
-        if ("CODE".equals(fileType)) {
-            // 代码文件使用TextFlow显示语法高亮
-            TextFlow textFlow = new TextFlow();
-            textFlow.setStyle(
-                    "-fx-background-color: #2d3748; " +
-                    "-fx-padding: 20px; " +
-                    "-fx-font-family: 'Consolas', 'Monaco', 'Courier New', monospace; " +
-                    "-fx-font-size: 16px;"
-            );
-            
-            // 应用语法高亮
-            syntaxHighlight(textFlow, content, getFileExtension(fileName));
-            
-            ScrollPane scrollPane = new ScrollPane(textFlow);
-            scrollPane.setFitToWidth(true);
-            scrollPane.setFitToHeight(true);
-            scrollPane.setStyle("-fx-background-color: transparent; -fx-border: none;");
-            
-            VBox.setVgrow(scrollPane, Priority.ALWAYS);
-            root.getChildren().add(scrollPane);
-        } else {
-            // 普通文本文件使用TextArea显示
-            TextArea textArea = new TextArea(content);
-            textArea.setEditable(false);
-            textArea.setWrapText(true);
-            
-            textArea.setStyle(
-                    "-fx-background-color: white; " +
-                    "-fx-font-family: 'Microsoft YaHei', 'SimSun', serif; " +
-                    "-fx-font-size: 18px; " +
-                    "-fx-line-spacing: 1.5; " +
-                    "-fx-text-fill: #4a5568; " +
-                    "-fx-padding: 20px;"
-            );
-            
-            ScrollPane scrollPane = new ScrollPane(textArea);
-            scrollPane.setFitToWidth(true);
-            scrollPane.setFitToHeight(true);
-            scrollPane.setStyle("-fx-background-color: transparent; -fx-border: none;");
-            
-            VBox.setVgrow(scrollPane, Priority.ALWAYS);
-            root.getChildren().add(scrollPane);
-        }
+        // 普通文本文件使用TextArea显示
+        TextArea textArea = new TextArea(content);
+        textArea.setEditable(false);
+        textArea.setWrapText(true);
+        
+        textArea.setStyle(
+                "-fx-background-color: white; " +
+                "-fx-font-family: 'Microsoft YaHei', 'SimSun', serif; " +
+                "-fx-font-size: 18px; " +
+                "-fx-line-spacing: 1.5; " +
+                "-fx-text-fill: #4a5568; " +
+                "-fx-padding: 20px;"
+        );
+        
+        ScrollPane scrollPane = new ScrollPane(textArea);
+        scrollPane.setFitToWidth(true);
+        scrollPane.setFitToHeight(true);
+        scrollPane.setStyle("-fx-background-color: transparent; -fx-border: none;");
+        
+        VBox.setVgrow(scrollPane, Priority.ALWAYS);
+        root.getChildren().add(scrollPane);
+        
+        stage.setScene(new Scene(root, 900, 700));
+        stage.show();
+    }
+    
+    /**
+     * 放大查看映射的文本文件，与详情页的视图共用同一个映射和索引
+     */
+    private void showEnlargeText(MappedTextFile document) {
+        Stage stage = new Stage();
+        stage.setTitle("放大查看 - " + document.getFile().getName());
+        
+        VBox root = new VBox(10);
+        root.setStyle("-fx-background-color: #f7fafc; -fx-padding: 20px;");
+        
+        TextLineView lineView = createPlainTextLineView(document, 18);
+        VBox.setVgrow(lineView, Priority.ALWAYS);
+        root.getChildren().add(lineView);
+        
+        stage.setScene(new Scene(root, 900, 700));
+        // 关闭窗口时移除视图，注销对映射的使用
+        stage.setOnHidden(e -> root.getChildren().clear());
+        stage.show();
+    }
+    
+    /**
+     * 放大查看代码，复用已高亮的结果
+     */
+    private void showEnlargeCode(HighlightedCode code, String fileName) {
+        Stage stage = new Stage();
+        stage.setTitle("放大查看 - " + fileName);
+        
+        VBox root = new VBox(10);
+        root.setStyle("-fx-background-color: #f7fafc; -fx-padding: 20px;");
+        
+        CodeLineView codeView = new CodeLineView("#2d3748", 16);
+        codeView.setCode(code);
+        VBox.setVgrow(codeView, Priority.ALWAYS);
+        root.getChildren().add(codeView);
         
         stage.setScene(new Scene(root, 900, 700));
         stage.show();
@@ -1304,12 +828,9 @@ public class PointDetailController {
      * 显示上一个知识点
      */
     private void showPrevPoint() {
-        if (currentPointIndex > 0) {
-            currentPointIndex--;
-            pointId = allPoints.get(currentPointIndex).getId();
-            loadPointData();
-            loadAllAttachments();
-            updateNavigationButtons();
+        if (prevPoint != null) {
+            pointId = prevPoint.getId();
+            loadPoint();
         }
     }
 
@@ -1317,21 +838,21 @@ public class PointDetailController {
      * 显示下一个知识点
      */
     private void showNextPoint() {
-        if (currentPointIndex < allPoints.size() - 1) {
-            currentPointIndex++;
-            pointId = allPoints.get(currentPointIndex).getId();
-            loadPointData();
-            loadAllAttachments();
-            updateNavigationButtons();
+        if (nextPoint != null) {
+            pointId = nextPoint.getId();
+            loadPoint();
         }
     }
 
     /**
      * 更新导航按钮状态
      */
-    private void updateNavigationButtons() {
-        prevBtn.setDisable(currentPointIndex == 0);
-        nextBtn.setDisable(currentPointIndex == allPoints.size() - 1);
+    private void updateNavigationButtons(PointSummaryVO prev, PointSummaryVO next) {
+        // 只查询相邻的两条，不再加载全部知识点
+        prevPoint = prev;
+        nextPoint = next;
+        prevBtn.setDisable(prevPoint == null);
+        nextBtn.setDisable(nextPoint == null);
     }
 
     /**
@@ -0,0 +1,21 @@
+package org.myself.iamreviewing.domain.vo;
+
+import org.myself.iamreviewing.domain.enums.DifficultyLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 知识点列表使用的轻量投影，只包含列表展示需要的字段，不携带描述和附件
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PointSummaryVO {
+    private Long id;
+    private String name;
+    private String category;
+    private DifficultyLevel difficultyLevel;
+    // 通过附件内容命中时的提示，如"讲义.pdf 第3页：..."，其他情况为null
+    private String matchHint;
+}
@@ -1,7 +1,14 @@
 package org.myself.iamreviewing.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Select;
 import org.myself.iamreviewing.domain.po.Point;
 
+import java.util.List;
+
 public interface PointMapper extends BaseMapper<Point> {
+
+    //在数据库中去重，只返回分类名
+    @Select("SELECT DISTINCT category FROM point ORDER BY category")
+    List<String> selectDistinctCategories();
 }
@@ -0,0 +1,556 @@
+package org.myself.iamreviewing.search;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import jakarta.annotation.PreDestroy;
+import org.myself.iamreviewing.component.previewer.TextExtractor;
+import org.myself.iamreviewing.domain.po.Attachment;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * 附件内容倒排索引
+ * 在后台线程中用TextExtractor提取PDF、DOCX、文本和代码附件的文字，按页/段/行建立索引；
+ * 提取结果按"路径+修改时间+大小"缓存到用户目录，文件未变化时不再重新解析；
+ * 内存中只保留每个分段在缓存文件中的字节偏移，生成片段时只读取命中的那一段；
+ * 每个词项命中的分段序号按差值变长编码保存，大文件末尾的行号只占几个字节
+ */
+@Component
+public class AttachmentContentIndex {
+
+    // 提取结果的磁盘缓存目录
+    private static final Path CACHE_DIR = Paths.get(System.getProperty("user.home"), ".iamreviewing", "content");
+    // 命中片段的最大长度
+    private static final int SNIPPET_LENGTH = 60;
+
+    // 单个后台线程、最低优先级，避免和界面抢CPU
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "attachment-content-indexer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    // 词项 -> (附件id -> 命中的分段序号，见SegmentList.encode)
+    private final NavigableMap<String, Map<Long, byte[]>> postings = new TreeMap<>();
+    // 附件id -> 已索引的附件
+    private final Map<Long, IndexedAttachment> attachments = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 文件版本标识，任一字段变化都需要重新提取
+     */
+    private record FileKey(String path, long lastModified, long size) {
+    }
+
+    /**
+     * @param segmentOffsets 各分段在缓存文件中的起始字节偏移，最后一项为文件末尾；缓存写入失败时为null
+     */
+    private record IndexedAttachment(Long attachmentId, Long pointId, String filename, FileKey key,
+                                     Set<String> terms, long[] segmentOffsets) {
+    }
+
+    /**
+     * 磁盘缓存中的提取结果
+     */
+    private record CachedContent(List<TextExtractor.Segment> segments, long[] offsets) {
+    }
+
+    /**
+     * 构建中的有序分段序号列表，索引完成后编码为差值变长字节数组
+     */
+    private static final class SegmentList {
+        private int[] values = new int[4];
+        private int size;
+
+        // 分段按顺序处理，同一分段多次出现的词项只记一次
+        void add(int segment) {
+            if (size > 0 && values[size - 1] == segment) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = segment;
+        }
+
+        // 每个序号与前一个的差值按7位一组编码，最高位表示后面还有字节
+        byte[] encode() {
+            byte[] bytes = new byte[size * 5];
+            int length = 0;
+            int previous = 0;
+            for (int i = 0; i < size; i++) {
+                int delta = values[i] - previous;
+                previous = values[i];
+                while ((delta & ~0x7F) != 0) {
+                    bytes[length++] = (byte) ((delta & 0x7F) | 0x80);
+                    delta >>>= 7;
+                }
+                bytes[length++] = (byte) delta;
+            }
+            return Arrays.copyOf(bytes, length);
+        }
+
+        static int[] decode(byte[] bytes) {
+            int[] result = new int[bytes.length];
+            int count = 0;
+            int value = 0;
+            int delta = 0;
+            int shift = 0;
+            for (byte b : bytes) {
+                delta |= (b & 0x7F) << shift;
+                if ((b & 0x80) != 0) {
+                    shift += 7;
+                    continue;
+                }
+                value += delta;
+                result[count++] = value;
+                delta = 0;
+                shift = 0;
+            }
+            return Arrays.copyOf(result, count);
+        }
+    }
+
+    /**
+     * 在后台索引全部附件，loader同样在后台线程中执行
+     */
+    public void indexAllAsync(Supplier<List<Attachment>> loader) {
+        executor.submit(() -> {
+            try {
+                for (Attachment attachment : loader.get()) {
+                    index(attachment);
+                }
+            } catch (Exception e) {
+                System.err.println("加载附件列表失败: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 在后台索引单个附件
+     */
+    public void indexAsync(Attachment attachment) {
+        executor.submit(() -> index(attachment));
+    }
+
+    /**
+     * 从索引中移除附件，并在后台删除其提取结果缓存
+     */
+    public void remove(Long attachmentId) {
+        // 立即移除，之后的搜索不再返回该附件
+        IndexedAttachment removed = removeLocked(attachmentId);
+        // 后台线程可能正在或即将索引这个附件，在同一线程中排在它们之后再移除一次，避免被重新加回
+        executor.submit(() -> {
+            IndexedAttachment late = removeLocked(attachmentId);
+            if (removed != null) {
+                deleteCacheIfUnused(removed.key());
+            }
+            if (late != null) {
+                deleteCacheIfUnused(late.key());
+            }
+        });
+    }
+
+    /**
+     * 搜索附件内容，关键字的所有词项必须出现在同一页/段/行中
+     * @param keyword 关键字
+     * @param snippetLimit 最多读取片段的附件数，其余命中结果的位置和片段为空
+     * @return 每个附件一条命中结果，按命中分段数从多到少排序
+     */
+    public List<ContentHit> search(String keyword, int snippetLimit) {
+        return search(keyword, snippetLimit, null);
+    }
+
+    /**
+     * 只在候选知识点的附件中搜索，用于在上一次搜索结果上继续细化
+     * @param keyword 关键字
+     * @param snippetLimit 最多读取片段的附件数
+     * @param pointIds 候选知识点id，为null时搜索全部
+     * @return 每个附件一条命中结果，按命中分段数从多到少排序
+     */
+    public List<ContentHit> search(String keyword, int snippetLimit, Set<Long> pointIds) {
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(Tokenizer.tokenizeForQuery(keyword)));
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+
+        List<Map.Entry<IndexedAttachment, int[]>> matched = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Map<Long, int[]> hits = null;
+            for (int i = 0; i < queryTerms.size(); i++) {
+                String term = queryTerms.get(i);
+                boolean prefix = i == queryTerms.size() - 1 && !Tokenizer.isCjk(term.codePointAt(0));
+                Map<Long, int[]> termHits = collectTerm(term, prefix);
+                if (pointIds != null) {
+                    termHits.keySet().removeIf(id -> !pointIds.contains(attachments.get(id).pointId()));
+                }
+                if (hits == null) {
+                    hits = termHits;
+                } else {
+                    // 同一附件内按分段求交集
+                    Map<Long, int[]> merged = new HashMap<>();
+                    for (Map.Entry<Long, int[]> entry : hits.entrySet()) {
+                        int[] other = termHits.get(entry.getKey());
+                        if (other != null) {
+                            int[] segments = intersect(entry.getValue(), other);
+                            if (segments.length > 0) {
+                                merged.put(entry.getKey(), segments);
+                            }
+                        }
+                    }
+                    hits = merged;
+                }
+                if (hits.isEmpty()) {
+                    return List.of();
+                }
+            }
+            for (Map.Entry<Long, int[]> entry : hits.entrySet()) {
+                matched.add(Map.entry(attachments.get(entry.getKey()), entry.getValue()));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        matched.sort(Comparator.comparingInt((Map.Entry<IndexedAttachment, int[]> e) -> e.getValue().length)
+                .reversed());
+        List<ContentHit> results = new ArrayList<>();
+        for (Map.Entry<IndexedAttachment, int[]> entry : matched) {
+            IndexedAttachment attachment = entry.getKey();
+            if (results.size() >= snippetLimit) {
+                results.add(new ContentHit(attachment.pointId(), attachment.attachmentId(), attachment.filename(),
+                        "", ""));
+                continue;
+            }
+            // 片段文本不常驻内存，命中时只从磁盘缓存读取第一个命中的分段
+            TextExtractor.Segment segment = readSegment(attachment, entry.getValue()[0]);
+            results.add(new ContentHit(attachment.pointId(), attachment.attachmentId(), attachment.filename(),
+                    segment == null ? "" : segment.location(),
+                    segment == null ? "" : snippet(segment.text(), keyword, queryTerms.get(0))));
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // 单个查询词项命中的附件和分段，前缀匹配时合并所有以该词开头的词项
+    private Map<Long, int[]> collectTerm(String term, boolean prefix) {
+        Map<String, Map<Long, byte[]>> matched = prefix
+                ? postings.subMap(term, true, term + Character.MAX_VALUE, true)
+                : Optional.ofNullable(postings.get(term)).map(p -> Map.of(term, p)).orElse(Map.of());
+        Map<Long, int[]> termHits = new HashMap<>();
+        for (Map<Long, byte[]> posting : matched.values()) {
+            posting.forEach((attachmentId, encoded) ->
+                    termHits.merge(attachmentId, SegmentList.decode(encoded), AttachmentContentIndex::union));
+        }
+        return termHits;
+    }
+
+    // 两个有序序号列表的交集
+    private static int[] intersect(int[] first, int[] second) {
+        int[] result = new int[Math.min(first.length, second.length)];
+        int count = 0;
+        for (int i = 0, j = 0; i < first.length && j < second.length; ) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                result[count++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    // 两个有序序号列表的并集
+    private static int[] union(int[] first, int[] second) {
+        int[] result = new int[first.length + second.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length || j < second.length) {
+            int next;
+            if (j >= second.length || (i < first.length && first[i] <= second[j])) {
+                next = first[i++];
+            } else {
+                next = second[j++];
+            }
+            if (count == 0 || result[count - 1] != next) {
+                result[count++] = next;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    // 提取并索引单个附件，文件未变化时直接跳过
+    private void index(Attachment attachment) {
+        try {
+            File file = new File(attachment.getFilepath());
+            if (!file.isFile() || !TextExtractor.isSupported(file)) {
+                return;
+            }
+            FileKey key = new FileKey(file.getAbsolutePath(), file.lastModified(), file.length());
+            lock.readLock().lock();
+            try {
+                IndexedAttachment existing = attachments.get(attachment.getId());
+                if (existing != null && existing.key().equals(key)) {
+                    return;
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            CachedContent cached = readCache(key);
+            List<TextExtractor.Segment> segments;
+            long[] offsets;
+            if (cached != null) {
+                segments = cached.segments();
+                offsets = cached.offsets();
+            } else {
+                segments = TextExtractor.extract(file);
+                offsets = writeCache(key, segments);
+            }
+
+            Map<String, SegmentList> termSegments = new HashMap<>();
+            for (int i = 0; i < segments.size(); i++) {
+                for (String term : Tokenizer.tokenizeForIndex(segments.get(i).text())) {
+                    termSegments.computeIfAbsent(term, t -> new SegmentList()).add(i);
+                }
+            }
+            Map<String, byte[]> encoded = new HashMap<>();
+            termSegments.forEach((term, list) -> encoded.put(term, list.encode()));
+
+            IndexedAttachment replaced;
+            lock.writeLock().lock();
+            try {
+                replaced = removeDocument(attachment.getId());
+                encoded.forEach((term, list) ->
+                        postings.computeIfAbsent(term, t -> new HashMap<>()).put(attachment.getId(), list));
+                attachments.put(attachment.getId(), new IndexedAttachment(attachment.getId(),
+                        attachment.getPointId(), attachment.getFilename(), key, encoded.keySet(), offsets));
+            } finally {
+                lock.writeLock().unlock();
+            }
+            // 附件换成了其他路径的文件，旧文件的缓存不再需要；同一路径的新版本已覆盖旧缓存
+            if (replaced != null && !replaced.key().path().equals(key.path())) {
+                deleteCacheIfUnused(replaced.key());
+            }
+        } catch (Exception e) {
+            System.err.println("提取附件内容失败: " + attachment.getFilepath() + " - " + e.getMessage());
+        }
+    }
+
+    private IndexedAttachment removeLocked(Long attachmentId) {
+        lock.writeLock().lock();
+        try {
+            return removeDocument(attachmentId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private IndexedAttachment removeDocument(Long attachmentId) {
+        IndexedAttachment attachment = attachments.remove(attachmentId);
+        if (attachment == null) {
+            return null;
+        }
+        for (String term : attachment.terms()) {
+            Map<Long, byte[]> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(attachmentId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        return attachment;
+    }
+
+    // 没有其他附件使用同一文件时删除其缓存
+    private void deleteCacheIfUnused(FileKey key) {
+        lock.readLock().lock();
+        try {
+            for (IndexedAttachment attachment : attachments.values()) {
+                if (attachment.key().path().equals(key.path())) {
+                    return;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        try {
+            Files.deleteIfExists(cacheFile(key));
+        } catch (IOException e) {
+            System.err.println("删除附件内容缓存失败: " + e.getMessage());
+        }
+    }
+
+    // 截取关键字附近的文本
+    private String snippet(String text, String keyword, String firstTerm) {
+        String flat = text.replaceAll("\\s+", " ");
+        String lower = flat.toLowerCase();
+        int index = lower.indexOf(keyword.trim().toLowerCase());
+        if (index < 0) {
+            index = Math.max(lower.indexOf(firstTerm), 0);
+        }
+        int start = Math.max(0, index - SNIPPET_LENGTH / 3);
+        int end = Math.min(flat.length(), start + SNIPPET_LENGTH);
+        return (start > 0 ? "..." : "") + flat.substring(start, end) + (end < flat.length() ? "..." : "");
+    }
+
+    private Path cacheFile(FileKey key) {
+        return CACHE_DIR.resolve(DigestUtil.sha1Hex(key.path()) + ".txt");
+    }
+
+    // 读取磁盘缓存，首行记录文件版本，其后每行一个分段；版本不一致或读取失败返回null
+    private CachedContent readCache(FileKey key) {
+        Path cacheFile = cacheFile(key);
+        if (!Files.isRegularFile(cacheFile)) {
+            return null;
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(cacheFile);
+            List<TextExtractor.Segment> segments = new ArrayList<>();
+            List<Long> offsets = new ArrayList<>();
+            int lineStart = 0;
+            boolean header = true;
+            while (lineStart < bytes.length) {
+                int lineEnd = lineStart;
+                while (lineEnd < bytes.length && bytes[lineEnd] != '\n') {
+                    lineEnd++;
+                }
+                String line = decodeLine(bytes, lineStart, lineEnd);
+                if (header) {
+                    if (!(key.lastModified() + "\t" + key.size()).equals(line)) {
+                        return null;
+                    }
+                    header = false;
+                } else {
+                    TextExtractor.Segment segment = parseSegment(line);
+                    if (segment != null) {
+                        segments.add(segment);
+                        offsets.add((long) lineStart);
+                    }
+                }
+                lineStart = lineEnd + 1;
+            }
+            if (header) {
+                return null;
+            }
+            long[] offsetArray = new long[offsets.size() + 1];
+            for (int i = 0; i < offsets.size(); i++) {
+                offsetArray[i] = offsets.get(i);
+            }
+            offsetArray[offsets.size()] = bytes.length;
+            return new CachedContent(segments, offsetArray);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // 写入磁盘缓存，返回各分段的起始字节偏移，写入失败返回null
+    private long[] writeCache(FileKey key, List<TextExtractor.Segment> segments) {
+        try {
+            Files.createDirectories(CACHE_DIR);
+            long[] offsets = new long[segments.size() + 1];
+            try (OutputStream output = Files.newOutputStream(cacheFile(key))) {
+                byte[] header = (key.lastModified() + "\t" + key.size() + "\n").getBytes(StandardCharsets.UTF_8);
+                output.write(header);
+                long position = header.length;
+                for (int i = 0; i < segments.size(); i++) {
+                    TextExtractor.Segment segment = segments.get(i);
+                    byte[] line = (segment.location() + "\t" + escape(segment.text()) + "\n")
+                            .getBytes(StandardCharsets.UTF_8);
+                    offsets[i] = position;
+                    output.write(line);
+                    position += line.length;
+                }
+                offsets[segments.size()] = position;
+            }
+            return offsets;
+        } catch (IOException e) {
+            System.err.println("写入附件内容缓存失败: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // 按字节偏移只读取一个分段，缓存缺失或已被其他版本覆盖时返回null
+    private TextExtractor.Segment readSegment(IndexedAttachment attachment, int segmentIndex) {
+        long[] offsets = attachment.segmentOffsets();
+        if (offsets == null || segmentIndex < 0 || segmentIndex + 1 >= offsets.length) {
+            return null;
+        }
+        long start = offsets[segmentIndex];
+        int length = (int) (offsets[segmentIndex + 1] - start);
+        try (RandomAccessFile file = new RandomAccessFile(cacheFile(attachment.key()).toFile(), "r")) {
+            if (file.length() != offsets[offsets.length - 1]) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            file.seek(start);
+            file.readFully(bytes);
+            int end = length;
+            while (end > 0 && bytes[end - 1] == '\n') {
+                end--;
+            }
+            return parseSegment(decodeLine(bytes, 0, end));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // 解码一行，兼容以\r\n结尾的旧缓存
+    private static String decodeLine(byte[] bytes, int start, int end) {
+        if (end > start && bytes[end - 1] == '\r') {
+            end--;
+        }
+        return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    private static TextExtractor.Segment parseSegment(String line) {
+        int tab = line.indexOf('\t');
+        return tab < 0 ? null : new TextExtractor.Segment(line.substring(0, tab), unescape(line.substring(tab + 1)));
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\n", "\\n").replace("\r", "\\r").replace("\t", "\\t");
+    }
+
+    private static String unescape(String text) {
+        StringBuilder result = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(++i);
+                result.append(switch (next) {
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    case 't' -> '\t';
+                    default -> next;
+                });
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
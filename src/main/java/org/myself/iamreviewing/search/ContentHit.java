@@ -0,0 +1,12 @@
+package org.myself.iamreviewing.search;
+
+/**
+ * 附件内容搜索命中结果
+ * @param pointId 附件所属知识点id
+ * @param attachmentId 附件id
+ * @param filename 附件文件名
+ * @param location 命中位置，如"第3页"、"第12行"
+ * @param snippet 命中位置附近的文本片段
+ */
+public record ContentHit(Long pointId, Long attachmentId, String filename, String location, String snippet) {
+}
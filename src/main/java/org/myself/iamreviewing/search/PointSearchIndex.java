@@ -0,0 +1,240 @@
+package org.myself.iamreviewing.search;
+
+import org.myself.iamreviewing.domain.po.Point;
+import org.myself.iamreviewing.domain.vo.PointSummaryVO;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 知识点内存倒排索引
+ * 对name、category、description分词建索引，查询时不访问数据库；
+ * 由PointServiceImpl在新增、修改、删除知识点时同步维护
+ */
+@Component
+public class PointSearchIndex {
+
+    // 各字段的权重，名称命中比描述命中更相关
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    // 前缀匹配的得分折扣
+    private static final double PREFIX_WEIGHT = 0.5;
+
+    // 词项 -> (知识点id -> 加权词频)，TreeMap便于前缀查找
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    // 知识点id -> 已索引的文档，用于删除和更新时回收旧词项
+    private final Map<Long, IndexedPoint> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean built;
+
+    /**
+     * 已索引的文档
+     * @param summary 列表展示需要的摘要
+     * @param termWeights 词项 -> 加权词频
+     */
+    private record IndexedPoint(PointSummaryVO summary, Map<String, Integer> termWeights) {
+    }
+
+    /**
+     * 是否已经完成全量构建
+     */
+    public boolean isBuilt() {
+        return built;
+    }
+
+    /**
+     * 用全部知识点重建索引
+     */
+    public void rebuild(Collection<Point> points) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            for (Point point : points) {
+                addDocument(point);
+            }
+            built = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 新增或更新一个知识点
+     */
+    public void put(Point point) {
+        if (point == null || point.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeDocument(point.getId());
+            addDocument(point);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除一个知识点
+     */
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 按相关度从高到低返回命中的知识点id
+     * 关键字中的每个词项都必须命中（AND），最后一个英文词项支持前缀匹配
+     * @param keyword 关键字
+     * @return 命中的知识点id
+     */
+    public List<Long> searchIds(String keyword) {
+        return searchIds(keyword, null);
+    }
+
+    /**
+     * 只在候选知识点中搜索，用于在上一次搜索结果上继续细化
+     * @param keyword 关键字
+     * @param candidates 候选知识点id，为null时搜索全部
+     * @return 命中的知识点id
+     */
+    public List<Long> searchIds(String keyword, Set<Long> candidates) {
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(Tokenizer.tokenizeForQuery(keyword)));
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (int i = 0; i < queryTerms.size(); i++) {
+                String term = queryTerms.get(i);
+                boolean prefix = i == queryTerms.size() - 1 && !Tokenizer.isCjk(term.codePointAt(0));
+                Map<Long, Double> termScores = scoreTerm(term, prefix, candidates);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    // 求交集并累加得分
+                    Map<Long, Double> merged = new HashMap<>();
+                    for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                        Double termScore = termScores.get(entry.getKey());
+                        if (termScore != null) {
+                            merged.put(entry.getKey(), entry.getValue() + termScore);
+                        }
+                    }
+                    scores = merged;
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey()));
+            return ranked.stream().map(Map.Entry::getKey).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 按相关度从高到低返回命中的知识点摘要
+     */
+    public List<PointSummaryVO> search(String keyword) {
+        return search(keyword, null);
+    }
+
+    /**
+     * 只在候选知识点中搜索，按相关度从高到低返回命中的知识点摘要
+     */
+    public List<PointSummaryVO> search(String keyword, Set<Long> candidates) {
+        return getSummaries(searchIds(keyword, candidates));
+    }
+
+    /**
+     * 按给定顺序返回已索引知识点的摘要副本，未索引的id会被跳过
+     */
+    public List<PointSummaryVO> getSummaries(List<Long> ids) {
+        lock.readLock().lock();
+        try {
+            List<PointSummaryVO> summaries = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                IndexedPoint document = documents.get(id);
+                if (document != null) {
+                    PointSummaryVO summary = document.summary();
+                    summaries.add(new PointSummaryVO(summary.getId(), summary.getName(),
+                            summary.getCategory(), summary.getDifficultyLevel(), null));
+                }
+            }
+            return summaries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 单个查询词项的TF-IDF得分，前缀匹配时合并所有以该词开头的词项
+    private Map<Long, Double> scoreTerm(String term, boolean prefix, Set<Long> candidates) {
+        Map<String, Map<Long, Integer>> matched = prefix
+                ? postings.subMap(term, true, term + Character.MAX_VALUE, true)
+                : Optional.ofNullable(postings.get(term)).map(p -> Map.of(term, p)).orElse(Map.of());
+
+        Map<Long, Double> termScores = new HashMap<>();
+        int totalDocuments = Math.max(documents.size(), 1);
+        for (Map.Entry<String, Map<Long, Integer>> entry : matched.entrySet()) {
+            Map<Long, Integer> posting = entry.getValue();
+            double idf = Math.log(1.0 + (double) totalDocuments / posting.size());
+            double weight = entry.getKey().equals(term) ? 1.0 : PREFIX_WEIGHT;
+            for (Map.Entry<Long, Integer> hit : posting.entrySet()) {
+                if (candidates != null && !candidates.contains(hit.getKey())) {
+                    continue;
+                }
+                termScores.merge(hit.getKey(), hit.getValue() * idf * weight, Double::sum);
+            }
+        }
+        return termScores;
+    }
+
+    private void addDocument(Point point) {
+        Map<String, Integer> termWeights = new HashMap<>();
+        addField(termWeights, point.getName(), NAME_WEIGHT);
+        addField(termWeights, point.getCategory(), CATEGORY_WEIGHT);
+        addField(termWeights, point.getDescription(), DESCRIPTION_WEIGHT);
+
+        PointSummaryVO summary = new PointSummaryVO(point.getId(), point.getName(),
+                point.getCategory(), point.getDifficultyLevel(), null);
+        documents.put(point.getId(), new IndexedPoint(summary, termWeights));
+        termWeights.forEach((term, weight) ->
+                postings.computeIfAbsent(term, t -> new HashMap<>()).put(point.getId(), weight));
+    }
+
+    private void removeDocument(Long id) {
+        IndexedPoint document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.termWeights().keySet()) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private void addField(Map<String, Integer> termWeights, String text, int weight) {
+        for (String term : Tokenizer.tokenizeForIndex(text)) {
+            termWeights.merge(term, weight, Integer::sum);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.myself.iamreviewing.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 搜索分词器
+ * 英文和数字按单词切分并转小写；中日韩文字没有空格分隔，按二元组(bigram)切分
+ */
+public final class Tokenizer {
+
+    private Tokenizer() {
+    }
+
+    /**
+     * 建索引时的分词：中日韩文字同时输出单字和二元组，保证单字查询也能命中
+     * @param text 原始文本
+     * @return 词项列表，可能包含重复词项
+     */
+    public static List<String> tokenizeForIndex(String text) {
+        return tokenize(text, true);
+    }
+
+    /**
+     * 查询时的分词：中日韩文字只输出二元组，长度为1时输出单字
+     * @param text 查询关键字
+     * @return 词项列表，保持关键字中的先后顺序
+     */
+    public static List<String> tokenizeForQuery(String text) {
+        return tokenize(text, false);
+    }
+
+    private static List<String> tokenize(String text, boolean forIndex) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+
+        StringBuilder word = new StringBuilder();
+        StringBuilder cjkRun = new StringBuilder();
+        int i = 0;
+        while (i < text.length()) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+
+            if (isCjk(codePoint)) {
+                flushWord(word, tokens);
+                cjkRun.appendCodePoint(codePoint);
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                flushCjkRun(cjkRun, tokens, forIndex);
+                word.appendCodePoint(Character.toLowerCase(codePoint));
+            } else {
+                flushWord(word, tokens);
+                flushCjkRun(cjkRun, tokens, forIndex);
+            }
+        }
+        flushWord(word, tokens);
+        flushCjkRun(cjkRun, tokens, forIndex);
+        return tokens;
+    }
+
+    private static void flushWord(StringBuilder word, List<String> tokens) {
+        if (!word.isEmpty()) {
+            tokens.add(word.toString());
+            word.setLength(0);
+        }
+    }
+
+    private static void flushCjkRun(StringBuilder run, List<String> tokens, boolean forIndex) {
+        if (run.isEmpty()) {
+            return;
+        }
+        int[] codePoints = run.codePoints().toArray();
+        if (codePoints.length == 1 || forIndex) {
+            // 单字：查询时只有一个字，或建索引时为每个字都建立词项
+            for (int codePoint : codePoints) {
+                tokens.add(new String(Character.toChars(codePoint)));
+            }
+        }
+        for (int j = 0; j + 1 < codePoints.length; j++) {
+            tokens.add(new String(codePoints, j, 2));
+        }
+        run.setLength(0);
+    }
+
+    /**
+     * 判断是否为中日韩文字
+     */
+    static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
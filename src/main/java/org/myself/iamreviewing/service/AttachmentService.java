@@ -6,7 +6,9 @@ import org.myself.iamreviewing.domain.po.Attachment;
 import org.myself.iamreviewing.domain.vo.AttachmentVO;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface AttachmentService extends IService<Attachment> {
     List<AttachmentVO> getByPointId(Long id);
@@ -14,4 +16,8 @@ public interface AttachmentService extends IService<Attachment> {
     boolean addAttachment(Long id, AttachmentDTO attachmentDTO);
 
     List<AttachmentVO> getAttachmentsByPointId(Long id);
+
+    Map<Long, List<AttachmentVO>> getByPointIds(Collection<Long> ids);
+
+    void startContentIndexing();
 }
@@ -3,8 +3,10 @@ package org.myself.iamreviewing.service;
 import com.baomidou.mybatisplus.extension.service.IService;
 import org.myself.iamreviewing.domain.dto.PointDTO;
 import org.myself.iamreviewing.domain.po.Point;
+import org.myself.iamreviewing.domain.vo.PointSummaryVO;
 import org.myself.iamreviewing.domain.vo.PointVO;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface PointService extends IService<Point> {
@@ -24,4 +26,14 @@ public interface PointService extends IService<Point> {
 
     PointVO getPointById(Long id);
 
+    List<PointSummaryVO> listSummaries();
+
+    List<PointSummaryVO> searchSummaries(String keyword);
+
+    List<PointSummaryVO> searchSummaries(String keyword, Collection<Long> candidateIds);
+
+    List<PointSummaryVO> pageSummaries(String category, Long afterId, int limit);
+
+    PointSummaryVO getAdjacentSummary(Long id, boolean next);
+
 }
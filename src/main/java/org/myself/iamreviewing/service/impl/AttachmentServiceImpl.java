@@ -1,6 +1,7 @@
 package org.myself.iamreviewing.service.impl;
 
 import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.collection.ListUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import lombok.NoArgsConstructor;
@@ -9,15 +10,30 @@ import org.myself.iamreviewing.domain.po.Attachment;
 import org.myself.iamreviewing.domain.po.Point;
 import org.myself.iamreviewing.domain.vo.AttachmentVO;
 import org.myself.iamreviewing.mapper.AttachmentMapper;
+import org.myself.iamreviewing.search.AttachmentContentIndex;
 import org.myself.iamreviewing.service.PointService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.myself.iamreviewing.service.AttachmentService;
 
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @NoArgsConstructor
 public class AttachmentServiceImpl extends ServiceImpl<AttachmentMapper, Attachment> implements AttachmentService {
+
+    // IN 查询每批最多携带的id数量，避免SQL过长
+    private static final int IN_BATCH_SIZE = 1000;
+
+    @Autowired
+    private AttachmentContentIndex contentIndex;
+
     @Override
     public List<AttachmentVO> getByPointId(Long id) {
 
@@ -28,7 +44,27 @@ public class AttachmentServiceImpl extends ServiceImpl<AttachmentMapper, Attachm
     public boolean addAttachment(Long id, AttachmentDTO attachmentDTO) {
         Attachment attachment = BeanUtil.copyProperties(attachmentDTO, Attachment.class);
         attachment.setPointId(id);
-        return save(attachment);
+        boolean saved = save(attachment);
+        if (saved) {
+            contentIndex.indexAsync(attachment);
+        }
+        return saved;
+    }
+
+    //删除附件时同步移除内容索引
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean removed = super.removeById(id);
+        if (removed) {
+            contentIndex.remove(Long.valueOf(id.toString()));
+        }
+        return removed;
+    }
+
+    //在后台线程中提取并索引全部附件的文字内容，已缓存且未修改的文件会直接跳过
+    @Override
+    public void startContentIndexing() {
+        contentIndex.indexAllAsync(this::list);
     }
 
     @Override
@@ -36,6 +72,23 @@ public class AttachmentServiceImpl extends ServiceImpl<AttachmentMapper, Attachm
         return convertToVO(list(new LambdaQueryWrapper<Attachment>().eq(Attachment::getPointId, id)));
     }
 
+    //批量查询多个知识点的附件，按pointId分组
+    @Override
+    public Map<Long, List<AttachmentVO>> getByPointIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {return Map.of();}
+
+        List<Attachment> attachments = new ArrayList<>();
+        for (List<Long> batch : ListUtil.partition(new ArrayList<>(ids), IN_BATCH_SIZE)) {
+            attachments.addAll(list(new LambdaQueryWrapper<Attachment>().in(Attachment::getPointId, batch)));
+        }
+
+        Map<Long, List<AttachmentVO>> grouped = new HashMap<>();
+        attachments.stream()
+                .collect(Collectors.groupingBy(Attachment::getPointId))
+                .forEach((pointId, list) -> grouped.put(pointId, convertToVO(list)));
+        return grouped;
+    }
+
     private  List<AttachmentVO> convertToVO(List<Attachment> list) {
         if (list == null) {return List.of();}
         return BeanUtil.copyToList(list, AttachmentVO.class);
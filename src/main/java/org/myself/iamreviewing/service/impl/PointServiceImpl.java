@@ -9,16 +9,31 @@ import org.myself.iamreviewing.domain.dto.PointDTO;
 import org.myself.iamreviewing.domain.po.Attachment;
 import org.myself.iamreviewing.domain.po.Point;
 import org.myself.iamreviewing.domain.vo.AttachmentVO;
+import org.myself.iamreviewing.domain.vo.PointSummaryVO;
 import org.myself.iamreviewing.domain.vo.PointVO;
 import org.myself.iamreviewing.mapper.PointMapper;
+import org.myself.iamreviewing.search.AttachmentContentIndex;
+import org.myself.iamreviewing.search.ContentHit;
+import org.myself.iamreviewing.search.PointSearchIndex;
 import org.myself.iamreviewing.service.AttachmentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.myself.iamreviewing.service.PointService;
 
+import java.io.Serializable;
 import java.lang.reflect.Constructor;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,30 +42,66 @@ public class PointServiceImpl extends ServiceImpl<PointMapper, Point> implements
     @Autowired
     private  AttachmentService attachmentService;
 
-    //获取所有分类
+    // 附件内容搜索最多读取命中片段的附件数
+    private static final int CONTENT_HIT_LIMIT = 100;
+
+    @Autowired
+    private PointSearchIndex searchIndex;
+
+    @Autowired
+    private AttachmentContentIndex contentIndex;
+
+    // 分类列表缓存，为null时下次查询重新从数据库加载
+    private volatile List<String> categoryCache;
+
+    // 每次失效时递增，加载期间发生过失效的结果不写回缓存
+    private final AtomicLong categoryVersion = new AtomicLong();
+
+    //获取所有分类，结果缓存在内存中，知识点增删改时失效
     @Override
     public List<String> getAllCategories() {
-        return listObjs(new LambdaQueryWrapper<Point>().select(Point::getCategory))
-                .stream()
-                .map(obj -> (String) obj)
-                .distinct()
-                .toList();
+        List<String> categories = categoryCache;
+        if (categories == null) {
+            long version = categoryVersion.get();
+            categories = List.copyOf(baseMapper.selectDistinctCategories());
+            synchronized (categoryVersion) {
+                if (categoryVersion.get() == version) {
+                    categoryCache = categories;
+                }
+            }
+        }
+        return categories;
     }
 
-    //通过关键字模糊查询
+    private void invalidateCategories() {
+        synchronized (categoryVersion) {
+            categoryVersion.incrementAndGet();
+            categoryCache = null;
+        }
+    }
+
+    //通过关键字查询，走内存倒排索引，结果按相关度排序
     @Override
     public List<PointVO> searchByKeyword(String keyword) {
-        LambdaQueryWrapper<Point> queryWrapper=new LambdaQueryWrapper<Point>();
-        if (keyword != null && !keyword.trim().isEmpty()) {
-            String fuzzyKeyword = "%" + keyword.trim() + "%"; // 前后加%，全模糊匹配
-
-            queryWrapper.like(Point::getName, fuzzyKeyword) // 匹配name字段
-                    .or() // 条件连接：OR（满足任意一个即可）
-                    .like(Point::getDescription, fuzzyKeyword) // 匹配description字段
-                    .or()
-                    .like(Point::getCategory, fuzzyKeyword); // 匹配category字段
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return getAllPoints();
         }
-        return convertToVO(list(queryWrapper));
+        ensureSearchIndex();
+        Set<Long> matchedIds = new LinkedHashSet<>(searchIndex.searchIds(keyword));
+        for (ContentHit hit : contentIndex.search(keyword, 0)) {
+            matchedIds.add(hit.pointId());
+        }
+        List<Long> ids = new ArrayList<>(matchedIds);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> rank = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            rank.put(ids.get(i), i);
+        }
+        List<Point> points = new ArrayList<>(listByIds(ids));
+        points.sort(Comparator.comparing(point -> rank.get(point.getId())));
+        return convertToVO(points);
     }
 
     //通过分类查询
@@ -65,7 +116,11 @@ public class PointServiceImpl extends ServiceImpl<PointMapper, Point> implements
     @Override
     public boolean saveDTO(PointDTO pointDTO) {
         Point point = BeanUtil.copyProperties(pointDTO, Point.class);
-        return save(point);
+        boolean saved = save(point);
+        if (saved) {
+            indexPoint(point);
+        }
+        return saved;
     }
 
     @Override
@@ -78,14 +133,28 @@ public class PointServiceImpl extends ServiceImpl<PointMapper, Point> implements
         Point point = BeanUtil.copyProperties(pointDTO, Point.class);
         point.setId(id);
         updateById(point);
-        return convertToVO(Optional.ofNullable(getById(id)).stream().collect(Collectors.toList())).get(0);
+        Point updated = getById(id);
+        indexPoint(updated);
+        return convertToVO(Optional.ofNullable(updated).stream().collect(Collectors.toList())).get(0);
     }
 
     @Override
     public PointVO createPoint(PointDTO pointDTO) {
         Point point = BeanUtil.copyProperties(pointDTO, Point.class);
         save(point);
-        return convertToVO(Optional.ofNullable(getById(point.getId())).stream().collect(Collectors.toList())).get(0);
+        Point created = getById(point.getId());
+        indexPoint(created);
+        return convertToVO(Optional.ofNullable(created).stream().collect(Collectors.toList())).get(0);
+    }
+
+    //删除知识点时同步从搜索索引中移除，并使分类缓存失效
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean removed = super.removeById(id);
+        if (removed) {
+            unindexPoint(Long.valueOf(id.toString()));
+        }
+        return removed;
     }
 
     @Override
@@ -95,13 +164,121 @@ public class PointServiceImpl extends ServiceImpl<PointMapper, Point> implements
         return pointVOs.isEmpty() ? null : pointVOs.get(0);
     }
 
+    //列表只查询摘要字段，附件在选中时再按需加载
+    @Override
+    public List<PointSummaryVO> listSummaries() {
+        return convertToSummary(list(summaryWrapper()));
+    }
+
+    //关键字搜索只访问内存索引，不查询数据库
+    @Override
+    public List<PointSummaryVO> searchSummaries(String keyword) {
+        return searchSummaries(keyword, null);
+    }
+
+    //在上一次的搜索结果中继续搜索，关键字只是在上一次的基础上追加时结果必然是其子集
+    @Override
+    public List<PointSummaryVO> searchSummaries(String keyword, Collection<Long> candidateIds) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return listSummaries();
+        }
+        ensureSearchIndex();
+        Set<Long> candidates = candidateIds == null ? null : new HashSet<>(candidateIds);
+        List<PointSummaryVO> summaries = new ArrayList<>(searchIndex.search(keyword, candidates));
+        Set<Long> matchedIds = summaries.stream().map(PointSummaryVO::getId).collect(Collectors.toSet());
+
+        // 附件内容命中的知识点排在后面，并带上命中位置提示
+        Map<Long, ContentHit> contentHits = new LinkedHashMap<>();
+        for (ContentHit hit : contentIndex.search(keyword, CONTENT_HIT_LIMIT, candidates)) {
+            if (!matchedIds.contains(hit.pointId())) {
+                contentHits.putIfAbsent(hit.pointId(), hit);
+            }
+        }
+        for (PointSummaryVO summary : searchIndex.getSummaries(new ArrayList<>(contentHits.keySet()))) {
+            ContentHit hit = contentHits.get(summary.getId());
+            summary.setMatchHint(hit.location().isEmpty()
+                    ? hit.filename()
+                    : hit.filename() + " " + hit.location() + "：" + hit.snippet());
+            summaries.add(summary);
+        }
+        return summaries;
+    }
+
+    //按id游标分页：只取afterId之后的limit条，category为空时不按分类过滤
+    @Override
+    public List<PointSummaryVO> pageSummaries(String category, Long afterId, int limit) {
+        LambdaQueryWrapper<Point> queryWrapper = summaryWrapper()
+                .eq(category != null, Point::getCategory, category)
+                .gt(afterId != null, Point::getId, afterId)
+                .orderByAsc(Point::getId)
+                .last("LIMIT " + limit);
+        return convertToSummary(list(queryWrapper));
+    }
+
+    //获取id相邻的上一个或下一个知识点
+    @Override
+    public PointSummaryVO getAdjacentSummary(Long id, boolean next) {
+        LambdaQueryWrapper<Point> queryWrapper = summaryWrapper()
+                .gt(next, Point::getId, id)
+                .lt(!next, Point::getId, id)
+                .orderBy(true, next, Point::getId)
+                .last("LIMIT 1");
+        List<PointSummaryVO> summaries = convertToSummary(list(queryWrapper));
+        return summaries.isEmpty() ? null : summaries.get(0);
+    }
+
+    // 第一次搜索时从数据库全量构建索引，之后由增删改同步维护
+    private void ensureSearchIndex() {
+        if (searchIndex.isBuilt()) {
+            return;
+        }
+        synchronized (searchIndex) {
+            if (!searchIndex.isBuilt()) {
+                searchIndex.rebuild(list(new LambdaQueryWrapper<Point>().select(Point::getId, Point::getName,
+                        Point::getCategory, Point::getDifficultyLevel, Point::getDescription)));
+            }
+        }
+    }
+
+    // 与ensureSearchIndex持有同一把锁，避免重建时用旧列表覆盖这次修改
+    private void indexPoint(Point point) {
+        synchronized (searchIndex) {
+            searchIndex.put(point);
+        }
+        invalidateCategories();
+    }
+
+    private void unindexPoint(Long id) {
+        synchronized (searchIndex) {
+            searchIndex.remove(id);
+        }
+        invalidateCategories();
+    }
+
+    private LambdaQueryWrapper<Point> summaryWrapper() {
+        return selectSummaryColumns(new LambdaQueryWrapper<Point>());
+    }
+
+    // 列表摘要只需要的列
+    private LambdaQueryWrapper<Point> selectSummaryColumns(LambdaQueryWrapper<Point> queryWrapper) {
+        return queryWrapper.select(Point::getId, Point::getName, Point::getCategory, Point::getDifficultyLevel);
+    }
+
+    private List<PointSummaryVO> convertToSummary(List<Point> points) {
+        if(points==null||points.isEmpty()){return List.of();}
+        return BeanUtil.copyToList(points, PointSummaryVO.class);
+    }
+
     public  List<PointVO> convertToVO(List<Point> points) {
         if(points==null||points.isEmpty()){return List.of();}
 
         List<PointVO> pointVOS = BeanUtil.copyToList(points, PointVO.class);
 
+        // 一次IN查询取回这一批知识点的全部附件，再在内存中按pointId分组，避免逐条查询
+        Map<Long, List<AttachmentVO>> attachmentMap = attachmentService.getByPointIds(
+                pointVOS.stream().map(PointVO::getId).toList());
         for(PointVO pointVO:pointVOS){
-            pointVO.setAttachmentVOS(attachmentService.getByPointId(pointVO.getId()));
+            pointVO.setAttachmentVOS(attachmentMap.getOrDefault(pointVO.getId(), List.of()));
         }
         return pointVOS;
     }
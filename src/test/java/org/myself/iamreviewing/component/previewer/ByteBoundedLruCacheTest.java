@@ -0,0 +1,48 @@
+package org.myself.iamreviewing.component.previewer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 按字节数限制大小的LRU缓存的淘汰和计数
+ */
+class ByteBoundedLruCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        ByteBoundedLruCache<String, byte[]> cache = new ByteBoundedLruCache<>(10, value -> value.length);
+        cache.put("a", new byte[4]);
+        cache.put("b", new byte[4]);
+        // 访问a后，b成为最久未使用
+        cache.get("a");
+        cache.put("c", new byte[4]);
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(8, cache.currentBytes());
+    }
+
+    @Test
+    void replacesValueAndAdjustsSize() {
+        ByteBoundedLruCache<String, byte[]> cache = new ByteBoundedLruCache<>(10, value -> value.length);
+        cache.put("a", new byte[6]);
+        cache.put("a", new byte[2]);
+
+        assertEquals(2, cache.currentBytes());
+    }
+
+    @Test
+    void skipsValueLargerThanLimit() {
+        ByteBoundedLruCache<String, byte[]> cache = new ByteBoundedLruCache<>(10, value -> value.length);
+        cache.put("a", new byte[4]);
+        cache.put("huge", new byte[11]);
+
+        assertNull(cache.get("huge"));
+        assertNotNull(cache.get("a"));
+        assertEquals(4, cache.currentBytes());
+    }
+}
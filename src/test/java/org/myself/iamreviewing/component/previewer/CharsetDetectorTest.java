@@ -0,0 +1,104 @@
+package org.myself.iamreviewing.component.previewer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 编码探测各分支的字节样本
+ */
+class CharsetDetectorTest {
+
+    private static final Charset GBK = Charset.forName("GBK");
+
+    @Test
+    void detectsBoms() {
+        assertEquals("UTF-8", CharsetDetector.detect(bytes(0xEF, 0xBB, 0xBF, 'a')));
+        assertEquals("UTF-16", CharsetDetector.detect(bytes(0xFE, 0xFF, 0, 'a')));
+        assertEquals("UTF-16", CharsetDetector.detect(bytes(0xFF, 0xFE, 'a', 0)));
+        assertEquals("UTF-32", CharsetDetector.detect(bytes(0, 0, 0xFE, 0xFF, 0, 0, 0, 'a')));
+    }
+
+    @Test
+    void checksUtf32LeBomBeforeUtf16Le() {
+        // UTF-32LE的BOM以UTF-16LE的BOM开头
+        assertEquals("UTF-32", CharsetDetector.detect(bytes(0xFF, 0xFE, 0, 0, 'a', 0, 0, 0)));
+    }
+
+    @Test
+    void treatsAsciiAndEmptyAsUtf8() {
+        assertEquals("UTF-8", CharsetDetector.detect("plain ascii text\n".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals("UTF-8", CharsetDetector.detect(new byte[0]));
+    }
+
+    @Test
+    void acceptsUtf8CutMidCharacter() {
+        byte[] chinese = "中文内容".getBytes(StandardCharsets.UTF_8);
+        // 最后一个三字节字符只保留1个或2个字节
+        assertEquals("UTF-8", CharsetDetector.detect(Arrays.copyOf(chinese, chinese.length - 1)));
+        assertEquals("UTF-8", CharsetDetector.detect(Arrays.copyOf(chinese, chinese.length - 2)));
+
+        byte[] emoji = "ok😀".getBytes(StandardCharsets.UTF_8);
+        assertEquals("UTF-8", CharsetDetector.detect(Arrays.copyOf(emoji, emoji.length - 1)));
+    }
+
+    @Test
+    void rejectsUtf8BrokenBeforeTail() {
+        byte[] text = "café au lait".getBytes(StandardCharsets.UTF_8);
+        // 去掉"é"的第二个字节，破损不在末尾，剩下的0xC3后跟空格也不符合GBK结构
+        ByteArrayOutputStream broken = new ByteArrayOutputStream();
+        broken.write(text, 0, 4);
+        broken.write(text, 5, text.length - 5);
+        assertEquals("ISO-8859-1", CharsetDetector.detect(broken.toByteArray()));
+    }
+
+    @Test
+    void detectsGbkChinese() {
+        assertEquals("GBK", CharsetDetector.detect("知识点复习：线程池与并发编程".getBytes(GBK)));
+    }
+
+    @Test
+    void detectsGbkCutAfterLeadByte() {
+        byte[] gbk = "中文编码".getBytes(GBK);
+        assertEquals("GBK", CharsetDetector.detect(Arrays.copyOf(gbk, gbk.length - 1)));
+    }
+
+    @Test
+    void toleratesFewInvalidBytesInGbk() {
+        // 80个高位字节中1个不符合GBK结构，比例低于0.05
+        byte[] gbk = "一二三四五六七八九十".repeat(4).getBytes(GBK);
+        assertEquals("GBK", CharsetDetector.detect(concat(gbk, bytes(0xE9, ' '))));
+    }
+
+    @Test
+    void fallsBackToLatin1WhenGbkInvalidRatioTooHigh() {
+        // 40个有效高位字节加5个无效字节，比例约0.11
+        byte[] gbk = "一二三四五六七八九十".repeat(2).getBytes(GBK);
+        byte[] stray = bytes(0xE9, ' ', 0xE9, ' ', 0xE9, ' ', 0xE9, ' ', 0xE9, ' ');
+        assertEquals("ISO-8859-1", CharsetDetector.detect(concat(gbk, stray)));
+    }
+
+    @Test
+    void detectsLatin1() {
+        assertEquals("ISO-8859-1", CharsetDetector.detect("café naïve über".getBytes(StandardCharsets.ISO_8859_1)));
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] result = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (byte) values[i];
+        }
+        return result;
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}
@@ -0,0 +1,40 @@
+package org.myself.iamreviewing.component.previewer;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.myself.iamreviewing.component.previewer.SyntaxHighlighter.Language;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 语法高亮引擎的吞吐量基准
+ * 结果受机器负载影响，默认构建不运行，使用 mvn test -Pbenchmark 单独运行
+ */
+@Tag("benchmark")
+class SyntaxHighlighterBenchmarkTest {
+
+    // 吞吐量下限，MB/s
+    private static final double MIN_THROUGHPUT_MB_PER_SECOND = 20;
+
+    @Test
+    void meetsThroughputTarget() {
+        Language java = SyntaxHighlighter.languageFor(".java");
+        String sample = SyntaxHighlighterTest.JAVA_SAMPLE;
+        String content = sample.repeat(8 * 1024 * 1024 / sample.length());
+        double megabytes = content.length() * 2 / (1024.0 * 1024.0);
+
+        // 预热后取多次中最快的一次
+        for (int i = 0; i < 3; i++) {
+            SyntaxHighlighter.tokenize(content, java);
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            SyntaxHighlighter.tokenize(content, java);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double throughput = megabytes / (best / 1e9);
+        assertTrue(throughput >= MIN_THROUGHPUT_MB_PER_SECOND,
+                String.format("吞吐量%.1f MB/s低于目标%.0f MB/s", throughput, MIN_THROUGHPUT_MB_PER_SECOND));
+    }
+}
@@ -0,0 +1,86 @@
+package org.myself.iamreviewing.component.previewer;
+
+import org.junit.jupiter.api.Test;
+import org.myself.iamreviewing.component.previewer.SyntaxHighlighter.Language;
+import org.myself.iamreviewing.component.previewer.SyntaxHighlighter.Token;
+import org.myself.iamreviewing.component.previewer.SyntaxHighlighter.TokenType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 语法高亮引擎的分词正确性
+ */
+class SyntaxHighlighterTest {
+
+    static final String JAVA_SAMPLE = """
+            package demo;
+
+            /**
+             * 多行注释跨越多行，其中的 class 和 "字符串" 都不应被高亮
+             */
+            public class Demo {
+                private static final int LIMIT = 0x1F; // 单行注释
+                private final String name = "a \\"quoted\\" name";
+
+                public int sum(int[] values) {
+                    int total = 0;
+                    for (int value : values) {
+                        total += value * 2.5f > LIMIT ? 1 : 0; /* 行内注释 */
+                    }
+                    return total;
+                }
+            }
+            """;
+
+    @Test
+    void carriesBlockCommentAcrossLines() {
+        Language java = SyntaxHighlighter.languageFor(".java");
+        List<Token> tokens = new ArrayList<>();
+
+        assertTrue(SyntaxHighlighter.tokenizeLine("int a; /* start", false, java, tokens));
+        tokens.clear();
+        assertTrue(SyntaxHighlighter.tokenizeLine("   class inside comment", true, java, tokens));
+        assertEquals(List.of(new Token(0, 23, TokenType.COMMENT)), tokens);
+        tokens.clear();
+        assertFalse(SyntaxHighlighter.tokenizeLine(" end */ class", true, java, tokens));
+        assertEquals(TokenType.COMMENT, tokens.get(0).type());
+        assertEquals(7, tokens.get(0).end());
+        assertEquals(new Token(8, 13, TokenType.KEYWORD), tokens.get(tokens.size() - 1));
+    }
+
+    @Test
+    void classifiesTokens() {
+        List<Token> tokens = SyntaxHighlighter.tokenize(JAVA_SAMPLE, SyntaxHighlighter.languageFor(".java"));
+
+        assertEquals(TokenType.COMMENT, typeAt(tokens, JAVA_SAMPLE.indexOf("class 和")));
+        assertEquals(TokenType.KEYWORD, typeAt(tokens, JAVA_SAMPLE.indexOf("public class")));
+        assertEquals(TokenType.NUMBER, typeAt(tokens, JAVA_SAMPLE.indexOf("0x1F")));
+        assertEquals(TokenType.COMMENT, typeAt(tokens, JAVA_SAMPLE.indexOf("// 单行注释")));
+        assertEquals(TokenType.STRING, typeAt(tokens, JAVA_SAMPLE.indexOf("quoted")));
+        assertEquals(TokenType.PLAIN, typeAt(tokens, JAVA_SAMPLE.indexOf("; /* 行内")));
+        assertEquals(TokenType.COMMENT, typeAt(tokens, JAVA_SAMPLE.indexOf("行内注释")));
+        assertEquals(TokenType.PLAIN, typeAt(tokens, JAVA_SAMPLE.indexOf("total;")));
+
+        // 记号首尾相接，覆盖整个文本
+        int position = 0;
+        for (Token token : tokens) {
+            assertEquals(position, token.start());
+            position = token.end();
+        }
+        assertEquals(JAVA_SAMPLE.length(), position);
+    }
+
+    private static TokenType typeAt(List<Token> tokens, int offset) {
+        for (Token token : tokens) {
+            if (offset >= token.start() && offset < token.end()) {
+                return token.type();
+            }
+        }
+        throw new AssertionError("偏移" + offset + "不在任何记号中");
+    }
+}
@@ -0,0 +1,91 @@
+package org.myself.iamreviewing.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.myself.iamreviewing.domain.po.Point;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 知识点倒排索引的查询、前缀匹配和增量维护
+ */
+class PointSearchIndexTest {
+
+    private PointSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PointSearchIndex();
+        index.rebuild(List.of(
+                point(1L, "Java并发编程", "Java", "线程池与锁"),
+                point(2L, "Spring事务传播", "Spring", "声明式事务"),
+                point(3L, "JVM内存模型", "Java", "并发可见性"),
+                point(4L, "Python装饰器", "Python", "函数式编程")));
+    }
+
+    @Test
+    void matchesMixedCjkAndAsciiQuery() {
+        assertEquals(List.of(1L), index.searchIds("java 并发编程"));
+        assertEquals(List.of(2L), index.searchIds("spring事务"));
+    }
+
+    @Test
+    void requiresEveryTerm() {
+        assertEquals(List.of(), index.searchIds("java 装饰器"));
+    }
+
+    @Test
+    void ranksNameHitsAboveDescriptionHits() {
+        // 1号名称含"并发"，3号只有描述含"并发"
+        assertEquals(List.of(1L, 3L), index.searchIds("并发"));
+    }
+
+    @Test
+    void appliesPrefixToLastAsciiTermOnly() {
+        assertEquals(List.of(4L), index.searchIds("pyth"));
+        // 前面的词项必须完全匹配
+        assertEquals(List.of(), index.searchIds("jav 内存"));
+        assertEquals(List.of(3L), index.searchIds("内存 jv"));
+    }
+
+    @Test
+    void doesNotPrefixMatchCjkTerms() {
+        // 单字"装"作为查询词项只能精确匹配，"编"不应按前缀命中"编程"
+        assertEquals(List.of(4L), index.searchIds("装"));
+        assertTrue(index.searchIds("程编").isEmpty());
+    }
+
+    @Test
+    void filtersByCandidates() {
+        assertEquals(List.of(3L), index.searchIds("java", Set.of(3L, 4L)));
+        assertTrue(index.searchIds("java", Set.of()).isEmpty());
+    }
+
+    @Test
+    void putAndRemoveAfterRebuild() {
+        index.put(point(5L, "Java虚拟线程", "Java", "Loom"));
+        assertTrue(index.searchIds("虚拟线程").contains(5L));
+
+        // 更新时回收旧词项
+        index.put(point(1L, "Kotlin协程", "Kotlin", "挂起函数"));
+        assertEquals(List.of(), index.searchIds("并发编程"));
+        assertEquals(List.of(1L), index.searchIds("协程"));
+
+        index.remove(5L);
+        assertTrue(index.searchIds("虚拟").isEmpty());
+        assertEquals(List.of(1L), index.getSummaries(List.of(1L, 5L)).stream().map(s -> s.getId()).toList());
+    }
+
+    private static Point point(Long id, String name, String category, String description) {
+        Point point = new Point();
+        point.setId(id);
+        point.setName(name);
+        point.setCategory(category);
+        point.setDescription(description);
+        return point;
+    }
+}
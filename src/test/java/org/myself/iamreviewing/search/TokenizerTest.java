@@ -0,0 +1,42 @@
+package org.myself.iamreviewing.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 分词器的切分规则
+ */
+class TokenizerTest {
+
+    @Test
+    void splitsMixedCjkAndAsciiForQuery() {
+        assertEquals(List.of("java", "并发", "发编", "编程", "jvm17"),
+                Tokenizer.tokenizeForQuery("Java并发编程 JVM17"));
+    }
+
+    @Test
+    void keepsSingleCjkCharacterForQuery() {
+        assertEquals(List.of("锁", "lock"), Tokenizer.tokenizeForQuery("锁 lock"));
+    }
+
+    @Test
+    void indexesSingleCharactersAndBigrams() {
+        assertEquals(List.of("线", "程", "池", "线程", "程池"), Tokenizer.tokenizeForIndex("线程池"));
+    }
+
+    @Test
+    void treatsPunctuationAsSeparator() {
+        assertEquals(List.of("spring", "boot", "自动", "动配", "配置"),
+                Tokenizer.tokenizeForQuery("Spring-Boot：自动配置！"));
+    }
+
+    @Test
+    void returnsEmptyForBlankText() {
+        assertTrue(Tokenizer.tokenizeForQuery(null).isEmpty());
+        assertTrue(Tokenizer.tokenizeForQuery("  ，。 ").isEmpty());
+    }
+}